@@ -1,7 +1,5 @@
 package com.matejdro.pebblenotificationcenter;
 
-import android.util.SparseArray;
-
 import com.matejdro.pebblecommons.pebble.PebbleCommunication;
 import com.matejdro.pebblecommons.pebble.PebbleTalkerService;
 import com.matejdro.pebblenotificationcenter.appsetting.DefaultAppSettingsStorage;
@@ -21,7 +19,7 @@ public class NCTalkerService extends PebbleTalkerService
     private DefaultAppSettingsStorage defaultSettingsStorage;
     private NotificationHistoryStorage historyDb;
 
-    public SparseArray<ProcessedNotification> sentNotifications = new SparseArray<ProcessedNotification>();
+    public SentNotificationRegistry sentNotifications = new SentNotificationRegistry();
 
     private LocationLookup locationLookup;
 
@@ -35,6 +33,8 @@ public class NCTalkerService extends PebbleTalkerService
 
         defaultSettingsStorage = new DefaultAppSettingsStorage(getGlobalSettings(), getGlobalSettings().edit());
         historyDb = new NotificationHistoryStorage(this);
+
+        PebbleNotificationCenter.getAppLabelCache().warmUp(this, defaultSettingsStorage.getCheckedApps());
     }
 
     @Override
@@ -42,6 +42,7 @@ public class NCTalkerService extends PebbleTalkerService
     {
         historyDb.close();
         locationLookup.close();
+        NotificationSendingModule.get(this).close();
 
         super.onDestroy();
     }
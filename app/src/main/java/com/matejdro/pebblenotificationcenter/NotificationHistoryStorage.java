@@ -1,90 +1,645 @@
 package com.matejdro.pebblenotificationcenter;
 
-import android.content.ContentValues;
 import android.content.Context;
-import android.content.SharedPreferences.Editor;
+import android.content.SharedPreferences;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteCantOpenDatabaseException;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteException;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
 import android.preference.PreferenceManager;
+import com.matejdro.pebblenotificationcenter.appsetting.AppSetting;
+import com.matejdro.pebblenotificationcenter.appsetting.AppSettingStorage;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
 import timber.log.Timber;
 
 public class NotificationHistoryStorage extends SQLiteOpenHelper {
+	private static final int DATABASE_VERSION = 4;
 
+	private static final int FLUSH_SIZE = 20;
+	private static final long FLUSH_DELAY = 5000;
+
+	public static final int DEFAULT_MAX_ROWS = 1000;
+	public static final int DEFAULT_MAX_AGE_DAYS = 30;
+	public static final int DEFAULT_MAX_SIZE_KB = 2048;
+
+	//Retention deletes at most this many rows per pass, so writer thread is never blocked for long
+	private static final int TRIM_BATCH_SIZE = 50;
+	private static final long MAINTENANCE_INTERVAL = 1000 * 60 * 60 * 24;
+	private static final String LAST_MAINTENANCE_KEY = "lastCleanup";
 
 	private Context context;
+
+	//Inserts are buffered and written in batches on the writer thread
+	private final Object writeLock = new Object();
+	private ArrayList<PendingNotification> pendingNotifications = new ArrayList<PendingNotification>();
+	private HandlerThread writerThread;
+	private Handler writerHandler;
+	private volatile boolean closed = false;
+	private SQLiteStatement insertStatement;
+	private HashSet<String> packagesToTrim = new HashSet<String>();
+	private Runnable flushRunnable = new Runnable()
+	{
+		@Override
+		public void run()
+		{
+			flush();
+			trim();
+		}
+	};
+	private Runnable trimRunnable = new Runnable()
+	{
+		@Override
+		public void run()
+		{
+			trim();
+		}
+	};
 	
 	public NotificationHistoryStorage(Context context) {
-		super(context, "notifications", null, 1);
+		super(context, "notifications", null, DATABASE_VERSION);
 		this.context = context;
 	}
 
 
 	@Override
 	public void onCreate(SQLiteDatabase db) {
-		db.execSQL("CREATE TABLE IF NOT EXISTS notifications (PostTime INTEGER, Title STRING, Subtitle STRING, Text STRING)");
+		//New databases go through the same migrations as existing ones, so there is only one definition of the schema
+		onUpgrade(db, 0, DATABASE_VERSION);
 	}
 
 
 	@Override
-	public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {		
+	public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+		for (int version = oldVersion + 1; version <= newVersion; version++)
+		{
+			Timber.d("Migrating history database to version " + version);
+			migrateTo(db, version);
+		}
+	}
+
+	/**
+	 * Upgrades database from version <code>version - 1</code> to <code>version</code>. Called inside transaction.
+	 */
+	private static void migrateTo(SQLiteDatabase db, int version)
+	{
+		switch (version)
+		{
+			case 1:
+				db.execSQL("CREATE TABLE IF NOT EXISTS notifications (PostTime INTEGER, Title STRING, Subtitle STRING, Text STRING)");
+				break;
+			case 2:
+				//SQLite cannot add primary key to existing table, so table must be rebuilt
+				db.execSQL("CREATE TABLE notifications_new (_id INTEGER PRIMARY KEY, PostTime INTEGER NOT NULL, Package TEXT, Title TEXT, Subtitle TEXT, Text TEXT)");
+				db.execSQL("INSERT INTO notifications_new (PostTime, Title, Subtitle, Text) SELECT IFNULL(PostTime, 0), Title, Subtitle, Text FROM notifications ORDER BY PostTime");
+				db.execSQL("DROP TABLE notifications");
+				db.execSQL("ALTER TABLE notifications_new RENAME TO notifications");
+				db.execSQL("CREATE INDEX notifications_post_time ON notifications (PostTime)");
+				break;
+			case 3:
+				//Row counts and sizes are maintained by triggers, so retention never needs to scan the table
+				db.execSQL("CREATE TABLE package_stats (Package TEXT PRIMARY KEY NOT NULL, Rows INTEGER NOT NULL, Bytes INTEGER NOT NULL)");
+				db.execSQL("INSERT INTO package_stats (Package, Rows, Bytes) SELECT IFNULL(Package, ''), COUNT(*), SUM(" + getRowSizeExpression("") + ") FROM notifications GROUP BY IFNULL(Package, '')");
+				db.execSQL("CREATE TRIGGER notifications_stats_insert AFTER INSERT ON notifications BEGIN " +
+						"INSERT OR IGNORE INTO package_stats (Package, Rows, Bytes) VALUES (IFNULL(NEW.Package, ''), 0, 0); " +
+						"UPDATE package_stats SET Rows = Rows + 1, Bytes = Bytes + " + getRowSizeExpression("NEW.") + " WHERE Package = IFNULL(NEW.Package, ''); " +
+						"END");
+				db.execSQL("CREATE TRIGGER notifications_stats_delete AFTER DELETE ON notifications BEGIN " +
+						"UPDATE package_stats SET Rows = Rows - 1, Bytes = Bytes - " + getRowSizeExpression("OLD.") + " WHERE Package = IFNULL(OLD.Package, ''); " +
+						"DELETE FROM package_stats WHERE Package = IFNULL(OLD.Package, '') AND Rows <= 0; " +
+						"END");
+				db.execSQL("CREATE INDEX notifications_package_post_time ON notifications (Package, PostTime)");
+				break;
+			case 4:
+				//Full text index. Its docid is always _id of the notification, so triggers keep it in sync with inserts and retention deletes.
+				db.execSQL("CREATE VIRTUAL TABLE notifications_fts USING fts4(Title, Subtitle, Text)");
+				db.execSQL("INSERT INTO notifications_fts (docid, Title, Subtitle, Text) SELECT _id, Title, Subtitle, Text FROM notifications");
+				db.execSQL("CREATE TRIGGER notifications_fts_insert AFTER INSERT ON notifications BEGIN " +
+						"INSERT INTO notifications_fts (docid, Title, Subtitle, Text) VALUES (NEW._id, NEW.Title, NEW.Subtitle, NEW.Text); " +
+						"END");
+				db.execSQL("CREATE TRIGGER notifications_fts_delete AFTER DELETE ON notifications BEGIN " +
+						"DELETE FROM notifications_fts WHERE docid = OLD._id; " +
+						"END");
+				break;
+		}
+	}
+
+
+	/**
+	 * @return SQL expression that approximates storage size of the row in bytes.
+	 */
+	private static String getRowSizeExpression(String prefix)
+	{
+		return "(16 + IFNULL(LENGTH(CAST(" + prefix + "Title AS BLOB)), 0) + IFNULL(LENGTH(CAST(" + prefix + "Subtitle AS BLOB)), 0) + IFNULL(LENGTH(CAST(" + prefix + "Text AS BLOB)), 0))";
 	}
 
+	/**
+	 * Queues notification to be written into history. Notifications are written on the background thread
+	 * when enough of them accumulate or after {@link #FLUSH_DELAY} milliseconds.
+	 */
+	public void storeNotification(long time, String pkg, String title, String subtitle, String text)
+	{
+		//Ingestion worker can still deliver notifications after service was destroyed
+		if (closed)
+			return;
+
+		PendingNotification notification = new PendingNotification();
+		notification.postTime = time;
+		notification.pkg = pkg;
+		notification.title = title;
+		notification.subtitle = subtitle;
+		notification.text = text;
+
+		int amountOfPending;
+		synchronized (pendingNotifications)
+		{
+			pendingNotifications.add(notification);
+			amountOfPending = pendingNotifications.size();
+		}
+
+		Handler handler = getWriterHandler();
+		if (handler == null)
+			return;
+
+		if (amountOfPending >= FLUSH_SIZE)
+		{
+			handler.removeCallbacks(flushRunnable);
+			handler.post(flushRunnable);
+		}
+		else if (amountOfPending == 1)
+		{
+			handler.postDelayed(flushRunnable, FLUSH_DELAY);
+		}
+	}
 
-	public void storeNotification(long time, String title, String subtitle, String text)
+	/**
+	 * Makes sure all queued notifications are written before history is read. Writing is done on the writer thread,
+	 * so caller never runs the insert transaction itself and only waits when there actually are queued notifications.
+	 */
+	public void awaitPendingWrites()
 	{
-		ContentValues values = new ContentValues();
-		values.put("PostTime", time);
-		values.put("Title", title);
-		values.put("Subtitle", subtitle);
-		values.put("Text", text);
+		synchronized (pendingNotifications)
+		{
+			if (pendingNotifications.isEmpty())
+				return;
+		}
+
+		Handler handler = getWriterHandler();
+		if (handler == null)
+			return;
+
+		final CountDownLatch latch = new CountDownLatch(1);
+		handler.removeCallbacks(flushRunnable);
+		boolean posted = handler.postAtFrontOfQueue(new Runnable()
+		{
+			@Override
+			public void run()
+			{
+				try
+				{
+					flushRunnable.run();
+				}
+				finally
+				{
+					latch.countDown();
+				}
+			}
+		});
+
+		//Writer thread is already quitting
+		if (!posted)
+			return;
 
 		try
 		{
-			getWritableDatabase().insert("notifications", null, values);
+			latch.await();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Writes all queued notifications into database in single transaction.
+	 */
+	private void flush()
+	{
+		synchronized (writeLock)
+		{
+			List<PendingNotification> batch;
+			synchronized (pendingNotifications)
+			{
+				if (pendingNotifications.isEmpty())
+					return;
+
+				batch = pendingNotifications;
+				pendingNotifications = new ArrayList<PendingNotification>();
+			}
+
+			try
+			{
+				SQLiteDatabase database = getWritableDatabase();
+				if (insertStatement == null)
+					insertStatement = database.compileStatement("INSERT INTO notifications (PostTime, Package, Title, Subtitle, Text) VALUES (?, ?, ?, ?, ?)");
+
+				database.beginTransaction();
+				try
+				{
+					for (PendingNotification notification : batch)
+					{
+						insertStatement.bindLong(1, notification.postTime);
+						bindStringOrNull(insertStatement, 2, notification.pkg);
+						bindStringOrNull(insertStatement, 3, notification.title);
+						bindStringOrNull(insertStatement, 4, notification.subtitle);
+						bindStringOrNull(insertStatement, 5, notification.text);
+						insertStatement.executeInsert();
+
+						if (notification.pkg != null)
+							packagesToTrim.add(notification.pkg);
+					}
+
+					database.setTransactionSuccessful();
+				}
+				finally
+				{
+					database.endTransaction();
+				}
+			}
+			catch (SQLiteCantOpenDatabaseException e)
+			{
+				Timber.e(e, "Database open exception!");
+				e.printStackTrace();
+			}
 		}
-		catch (SQLiteCantOpenDatabaseException e)
+	}
+
+	/**
+	 * Deletes small batch of notifications that exceed retention limits. When there is more to delete,
+	 * another pass is scheduled on the writer thread. When there is nothing left to delete, database file is occasionally compacted.
+	 */
+	private void trim()
+	{
+		synchronized (writeLock)
 		{
-			Timber.e(e, "Database open exception!");
-			e.printStackTrace();
+			SharedPreferences preferences = PreferenceManager.getDefaultSharedPreferences(context);
+			int maxRows = parsePreference(preferences, PebbleNotificationCenter.HISTORY_MAX_ROWS, DEFAULT_MAX_ROWS);
+			int maxAgeDays = parsePreference(preferences, PebbleNotificationCenter.HISTORY_MAX_AGE, DEFAULT_MAX_AGE_DAYS);
+			int maxSizeKb = parsePreference(preferences, PebbleNotificationCenter.HISTORY_MAX_SIZE, DEFAULT_MAX_SIZE_KB);
+
+			try
+			{
+				SQLiteDatabase database = getWritableDatabase();
+				boolean moreWork = false;
+
+				database.beginTransaction();
+				try
+				{
+					if (maxAgeDays > 0)
+						moreWork |= deleteOldest(database, "PostTime < ?", new String[] { Long.toString(System.currentTimeMillis() - maxAgeDays * 24L * 60 * 60 * 1000) }, TRIM_BATCH_SIZE) == TRIM_BATCH_SIZE;
+
+					long[] totals = getTotals(database);
+					if (maxRows > 0 && totals[0] > maxRows)
+					{
+						long excess = totals[0] - maxRows;
+						int deleted = deleteOldest(database, null, null, (int) Math.min(excess, TRIM_BATCH_SIZE));
+						moreWork |= deleted > 0 && excess > deleted;
+						totals = getTotals(database);
+					}
+
+					if (maxSizeKb > 0 && totals[1] > maxSizeKb * 1024L)
+						moreWork |= deleteOldest(database, null, null, TRIM_BATCH_SIZE) > 0;
+
+					Iterator<String> iterator = packagesToTrim.iterator();
+					while (iterator.hasNext())
+					{
+						if (!trimPackage(database, iterator.next()))
+							iterator.remove();
+						else
+							moreWork = true;
+					}
+
+					database.setTransactionSuccessful();
+				}
+				finally
+				{
+					database.endTransaction();
+				}
+
+				if (moreWork)
+				{
+					Handler handler = writerHandler;
+					if (handler != null)
+						handler.post(trimRunnable);
+				}
+				else
+				{
+					compactIfNeeded(database, preferences);
+				}
+			}
+			catch (SQLiteException e)
+			{
+				Timber.e(e, "History trimming failed!");
+			}
 		}
 	}
 
+	/**
+	 * @return <code>true</code> if package still has more notifications than its limit
+	 */
+	private boolean trimPackage(SQLiteDatabase database, String pkg)
+	{
+		AppSettingStorage settingStorage = PebbleNotificationCenter.getInMemorySettings().getAppSettingsCache().get(pkg);
+		int maxRows = AppSetting.parseInt(settingStorage, AppSetting.HISTORY_APP_LIMIT, 0);
+		if (maxRows <= 0)
+			return false;
+
+		Cursor cursor = database.rawQuery("SELECT Rows FROM package_stats WHERE Package = ?", new String[] { pkg });
+		long rows = cursor.moveToNext() ? cursor.getLong(0) : 0;
+		cursor.close();
+
+		long excess = rows - maxRows;
+		if (excess <= 0)
+			return false;
+
+		int deleted = deleteOldest(database, "Package = ?", new String[] { pkg }, (int) Math.min(excess, TRIM_BATCH_SIZE));
+		return deleted > 0 && excess > deleted;
+	}
+
+	/**
+	 * Deletes oldest notifications using PostTime index.
+	 * @return amount of deleted notifications
+	 */
+	private static int deleteOldest(SQLiteDatabase database, String where, String[] whereArgs, int limit)
+	{
+		String innerWhere = where == null ? "" : " WHERE " + where;
+		return database.delete("notifications", "_id IN (SELECT _id FROM notifications" + innerWhere + " ORDER BY PostTime LIMIT " + limit + ")", whereArgs);
+	}
+
+	/**
+	 * @return array with total amount of rows and total approximate size in bytes
+	 */
+	private static long[] getTotals(SQLiteDatabase database)
+	{
+		Cursor cursor = database.rawQuery("SELECT IFNULL(SUM(Rows), 0), IFNULL(SUM(Bytes), 0) FROM package_stats", null);
+		long[] totals = new long[2];
+		if (cursor.moveToNext())
+		{
+			totals[0] = cursor.getLong(0);
+			totals[1] = cursor.getLong(1);
+		}
+		cursor.close();
+
+		return totals;
+	}
+
+	/**
+	 * Returns space of deleted rows to the file system once per {@link #MAINTENANCE_INTERVAL}. Database is switched to incremental
+	 * auto vacuum on first run, so later runs only need to release free pages instead of rebuilding whole file.
+	 */
+	private void compactIfNeeded(SQLiteDatabase database, SharedPreferences preferences)
+	{
+		long lastMaintenance = preferences.getLong(LAST_MAINTENANCE_KEY, 0);
+		long now = System.currentTimeMillis();
+		if (now - lastMaintenance < MAINTENANCE_INTERVAL && now >= lastMaintenance)
+			return;
+
+		Cursor cursor = database.rawQuery("PRAGMA auto_vacuum", null);
+		int vacuumMode = cursor.moveToNext() ? cursor.getInt(0) : 0;
+		cursor.close();
+
+		if (vacuumMode != 2)
+		{
+			Timber.d("Switching history database to incremental vacuum");
+			database.execSQL("PRAGMA auto_vacuum = INCREMENTAL");
+			database.execSQL("VACUUM");
+		}
+		else
+		{
+			//Pragma only releases pages while its result is being stepped through
+			cursor = database.rawQuery("PRAGMA incremental_vacuum", null);
+			while (cursor.moveToNext());
+			cursor.close();
+		}
+
+		preferences.edit().putLong(LAST_MAINTENANCE_KEY, now).apply();
+	}
+
+	private static int parsePreference(SharedPreferences preferences, String key, int def)
+	{
+		try
+		{
+			return Integer.parseInt(preferences.getString(key, Integer.toString(def)));
+		}
+		catch (NumberFormatException e)
+		{
+			return def;
+		}
+	}
+
+	private static void bindStringOrNull(SQLiteStatement statement, int index, String value)
+	{
+		if (value == null)
+			statement.bindNull(index);
+		else
+			statement.bindString(index, value);
+	}
+
+	/**
+	 * @return handler of the writer thread or <code>null</code> if storage was already closed
+	 */
+	private synchronized Handler getWriterHandler()
+	{
+		if (closed)
+			return null;
+
+		if (writerHandler == null)
+		{
+			writerThread = new HandlerThread("HistoryWriter", Process.THREAD_PRIORITY_BACKGROUND);
+			writerThread.start();
+			writerHandler = new Handler(writerThread.getLooper());
+		}
+
+		return writerHandler;
+	}
+
 	@Override
 	public synchronized void close() {
+		closed = true;
+
+		if (writerThread != null)
+		{
+			writerHandler.removeCallbacks(flushRunnable);
+			writerHandler.removeCallbacks(trimRunnable);
+			writerThread.quit();
+			writerThread = null;
+			writerHandler = null;
+		}
+
+		flush();
+
+		synchronized (writeLock)
+		{
+			if (insertStatement != null)
+			{
+				insertStatement.close();
+				insertStatement = null;
+			}
+		}
+
 		getWritableDatabase().close();
 		super.close();
 	}	
 
-    public void clearDatabase()
-    {
-        SQLiteDatabase database = getWritableDatabase();
+	/**
+	 * Searches title, subtitle and text of all notifications in history. Every word of the query must match start of some word
+	 * in the notification (FTS prefix query <code>"word*"</code>), so partially typed words also match.
+	 * Words with punctuation are matched as phrase of their parts where only the last part is a prefix.
+	 *
+	 * @return cursor with columns <code>_id, PostTime, Title, Subtitle</code>, newest notifications first. Caller must close it.
+	 * Use {@link #getText(long)} to load text of the notification.
+	 */
+	public Cursor search(String query, int offset, int limit)
+	{
+		awaitPendingWrites();
+		return getPage(query, Long.MAX_VALUE, offset, limit);
+	}
 
-        database.delete("notifications", null, null);
+	/**
+	 * Loads page of history without notification texts.
+	 *
+	 * @param query full text query (see {@link #search(String, int, int)}) or <code>null</code> to list all notifications.
+	 * @param maxId only notifications with ID lower or equal to this are listed, so newly written notifications do not shift the pages.
+	 * @return cursor with columns <code>_id, PostTime, Title, Subtitle</code>, newest notifications first. Caller must close it.
+	 */
+	public Cursor getPage(String query, long maxId, int offset, int limit)
+	{
+		String limitClause = " ORDER BY n.PostTime DESC LIMIT " + limit + " OFFSET " + offset;
 
+		if (query == null)
+			return getReadableDatabase().rawQuery("SELECT n._id, n.PostTime, n.Title, n.Subtitle FROM notifications n WHERE n._id <= ?" + limitClause, new String[] { Long.toString(maxId) });
 
-        Editor editor = PreferenceManager.getDefaultSharedPreferences(context).edit();
-        editor.putLong("lastCleanup", System.currentTimeMillis());
-        editor.apply();
-    }
+		String matchQuery = buildMatchQuery(query);
+		if (matchQuery == null)
+			return getReadableDatabase().rawQuery("SELECT _id, PostTime, Title, Subtitle FROM notifications WHERE 0", null);
 
-	public void cleanDatabase()
-	{		
-		SQLiteDatabase database = getWritableDatabase();
-		Cursor cursor = database.rawQuery("SELECT MIN(PostTime) FROM (SELECT PostTime FROM notifications ORDER BY PostTime DESC LIMIT 100)", null);
-		if (!cursor.moveToNext())
-			return;
+		return getReadableDatabase().rawQuery("SELECT n._id, n.PostTime, n.Title, n.Subtitle FROM notifications n " +
+				"JOIN (SELECT docid FROM notifications_fts WHERE notifications_fts MATCH ?) f ON n._id = f.docid " +
+				"WHERE n._id <= ?" + limitClause, new String[] { matchQuery, Long.toString(maxId) });
+	}
+
+	/**
+	 * @return text of the notification or <code>null</code> if notification is not in history anymore.
+	 */
+	public String getText(long id)
+	{
+		Cursor cursor = getReadableDatabase().rawQuery("SELECT Text FROM notifications WHERE _id = ?", new String[] { Long.toString(id) });
+		String text = cursor.moveToNext() ? cursor.getString(0) : null;
+		cursor.close();
 
-		long lastDate = cursor.getLong(0);
+		return text;
+	}
+
+	/**
+	 * @return ID of the newest notification in history or 0 if history is empty.
+	 */
+	public long getNewestId()
+	{
+		Cursor cursor = getReadableDatabase().rawQuery("SELECT IFNULL(MAX(_id), 0) FROM notifications", null);
+		long id = cursor.moveToNext() ? cursor.getLong(0) : 0;
+		cursor.close();
+
+		return id;
+	}
 
-		database.delete("notifications", "PostTime < ?", new String[] {Long.toString(lastDate)});
+	/**
+	 * @return amount of all notifications in history. Read from maintained counters, so it does not scan the table.
+	 */
+	public int getNotificationCount()
+	{
+		return (int) getTotals(getReadableDatabase())[0];
+	}
 
+	/**
+	 * @return amount of notifications that match the query (see {@link #search(String, int, int)}).
+	 */
+	public int getSearchResultCount(String query)
+	{
+		flush();
 
-		Editor editor = PreferenceManager.getDefaultSharedPreferences(context).edit();
-		editor.putLong("lastCleanup", System.currentTimeMillis());
-		editor.apply();
+		String matchQuery = buildMatchQuery(query);
+		if (matchQuery == null)
+			return 0;
 
+		Cursor cursor = getReadableDatabase().rawQuery("SELECT COUNT(*) FROM notifications_fts WHERE notifications_fts MATCH ?", new String[] { matchQuery });
+		int count = cursor.moveToNext() ? cursor.getInt(0) : 0;
 		cursor.close();
+
+		return count;
+	}
+
+	/**
+	 * Converts user query into FTS query where every word is quoted prefix term (<code>"word*"</code>), so user can never enter invalid query syntax.
+	 *
+	 * @return FTS query or <code>null</code> if query does not contain any words.
+	 */
+	private static String buildMatchQuery(String query)
+	{
+		if (query == null)
+			return null;
+
+		StringBuilder builder = new StringBuilder();
+		for (String word : query.trim().split("\\s+"))
+		{
+			word = word.replace("\"", "");
+			if (word.isEmpty())
+				continue;
+
+			if (builder.length() > 0)
+				builder.append(' ');
+
+			//Star must be inside the quotes, "word"* is matched as exact term
+			builder.append('"').append(word).append("*\"");
+		}
+
+		if (builder.length() == 0)
+			return null;
+
+		return builder.toString();
+	}
+
+    /**
+     * Deletes all notifications and compacts database file right away. May run migrations and vacuum, so it must not be called on the UI thread.
+     */
+    public void clearDatabase()
+    {
+        synchronized (writeLock)
+        {
+            SQLiteDatabase database = getWritableDatabase();
+
+            database.delete("notifications", null, null);
+
+            //Biggest possible delete just happened, so space is released now instead of postponing it until next maintenance
+            SharedPreferences preferences = PreferenceManager.getDefaultSharedPreferences(context);
+            preferences.edit().remove(LAST_MAINTENANCE_KEY).apply();
+            compactIfNeeded(database, preferences);
+        }
+    }
+
+	private static class PendingNotification
+	{
+		long postTime;
+		String pkg;
+		String title;
+		String subtitle;
+		String text;
 	}
 }
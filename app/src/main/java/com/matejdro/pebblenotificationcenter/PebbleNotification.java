@@ -5,8 +5,8 @@ import android.graphics.Color;
 import android.os.Parcel;
 import android.os.Parcelable;
 import com.matejdro.pebblenotificationcenter.appsetting.AppSettingStorage;
-import com.matejdro.pebblenotificationcenter.appsetting.SharedPreferencesAppStorage;
 import com.matejdro.pebblenotificationcenter.notifications.actions.NotificationAction;
+import com.matejdro.pebblenotificationcenter.util.ContentFingerprint;
 import java.util.ArrayList;
 import java.util.TimeZone;
 
@@ -31,6 +31,7 @@ public class PebbleNotification implements Parcelable
     private boolean hidingTextDisallowed;
     private String wearGroupKey;
     private int color;
+    private long contentFingerprint;
 
     public static final int WEAR_GROUP_TYPE_DISABLED = 0;
     public static final int WEAR_GROUP_TYPE_GROUP_MESSAGE = 1;
@@ -65,6 +66,7 @@ public class PebbleNotification implements Parcelable
     public void setTitle(String title)
     {
         this.title = title == null ? "" : title;
+        contentFingerprint = 0;
     }
 
     public String getSubtitle()
@@ -75,6 +77,7 @@ public class PebbleNotification implements Parcelable
     public void setSubtitle(String subtitle)
     {
         this.subtitle = subtitle == null ? "" : subtitle;
+        contentFingerprint = 0;
     }
 
     public String getText()
@@ -85,6 +88,7 @@ public class PebbleNotification implements Parcelable
     public void setText(String text)
     {
         this.text = text == null ? "" : text;
+        contentFingerprint = 0;
     }
 
     public boolean isDismissable()
@@ -120,7 +124,7 @@ public class PebbleNotification implements Parcelable
             if (key.getPackage() == null)
                 settingStorage = PebbleNotificationCenter.getInMemorySettings().getDefaultSettingsStorage();
             else
-                settingStorage = new SharedPreferencesAppStorage(context, key.getPackage(), PebbleNotificationCenter.getInMemorySettings().getDefaultSettingsStorage());
+                settingStorage = PebbleNotificationCenter.getInMemorySettings().getAppSettingsCache().get(key.getPackage());
         }
 
         return settingStorage;
@@ -224,6 +228,7 @@ public class PebbleNotification implements Parcelable
     public void setKey(NotificationKey key)
     {
         this.key = key;
+        contentFingerprint = 0;
     }
 
     public int getColor()
@@ -246,7 +251,19 @@ public class PebbleNotification implements Parcelable
 
     public boolean hasIdenticalContent(PebbleNotification comparing)
     {
-        return key.getPackage().equals(comparing.key.getPackage()) && comparing.text.equals(text) && comparing.title.equals(title) && comparing.subtitle.equals(subtitle);
+        return getContentFingerprint() == comparing.getContentFingerprint() && key.getPackage().equals(comparing.key.getPackage()) && comparing.text.equals(text) && comparing.title.equals(title) && comparing.subtitle.equals(subtitle);
+    }
+
+    /**
+     * @return 64-bit hash of the package, title, subtitle and text. It is calculated once and then cached until content changes.
+     */
+    public long getContentFingerprint()
+    {
+        //0 is reserved for "not calculated"
+        if (contentFingerprint == 0)
+            contentFingerprint = ContentFingerprint.calculate(key == null ? null : key.getPackage(), title, subtitle, text);
+
+        return contentFingerprint;
     }
 
     public boolean isSameNotification(NotificationKey comparing)
@@ -255,6 +272,24 @@ public class PebbleNotification implements Parcelable
     }
 
 
+    /**
+     * @return independent copy of this notification that can be modified without affecting the original
+     */
+    public PebbleNotification copy()
+    {
+        Parcel parcel = Parcel.obtain();
+        try
+        {
+            writeToParcel(parcel, 0);
+            parcel.setDataPosition(0);
+            return CREATOR.createFromParcel(parcel);
+        }
+        finally
+        {
+            parcel.recycle();
+        }
+    }
+
     @Override
     public int describeContents()
     {
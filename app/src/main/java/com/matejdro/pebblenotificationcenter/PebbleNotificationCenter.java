@@ -1,15 +1,19 @@
 package com.matejdro.pebblenotificationcenter;
 
 import android.content.pm.ApplicationInfo;
+import android.content.res.Configuration;
 import com.crashlytics.android.Crashlytics;
 import com.matejdro.pebblecommons.PebbleCompanionApplication;
 import com.matejdro.pebblecommons.pebble.PebbleTalkerService;
 import com.matejdro.pebblecommons.util.LogWriter;
+import com.matejdro.pebblenotificationcenter.util.AppColorCache;
+import com.matejdro.pebblenotificationcenter.util.AppLabelCache;
 import com.matejdro.pebblenotificationcenter.util.SettingsMemoryStorage;
 
 import io.fabric.sdk.android.Fabric;
 import timber.log.Timber;
 
+import java.util.Locale;
 import java.util.Map;
 import java.util.UUID;
 
@@ -32,6 +36,12 @@ public class PebbleNotificationCenter extends PebbleCompanionApplication
     public static final String INVERT_COLORS = "invertColors";
     public static final String NOTIFICATIONS_DISABLED = "noNotifications";
     public static final String VIBRATION_DISABLED = "noVibration";
+    public static final String SENT_NOTIFICATIONS_LIMIT = "sentNotificationsLimit";
+    public static final String SENT_NOTIFICATIONS_MAX_AGE = "sentNotificationsMaxAge";
+    public static final String RELATIVE_LIST_DATES = "relativeListDates";
+    public static final String HISTORY_MAX_ROWS = "historyMaxRows";
+    public static final String HISTORY_MAX_AGE = "historyMaxAge";
+    public static final String HISTORY_MAX_SIZE = "historyMaxSize";
 
 
     public static final String LATITUDE = "latitude";
@@ -41,6 +51,9 @@ public class PebbleNotificationCenter extends PebbleCompanionApplication
     public final static UUID WATCHAPP_UUID = UUID.fromString("0a7575eb-e5b9-456b-8701-3eacb62d74f1");
 
     private static SettingsMemoryStorage settingsMemoryStorage;
+    private static AppColorCache appColorCache;
+    private static AppLabelCache appLabelCache;
+    private Locale lastLocale;
     
     @Override public void onCreate() {
         super.onCreate();
@@ -50,6 +63,9 @@ public class PebbleNotificationCenter extends PebbleCompanionApplication
             Fabric.with(this, new Crashlytics());
 
         settingsMemoryStorage = new SettingsMemoryStorage(this);
+        appColorCache = new AppColorCache(this);
+        appLabelCache = new AppLabelCache();
+        lastLocale = getResources().getConfiguration().locale;
         Timber.setTag("PebbleNotificationCenter");
         LogWriter.init(settingsMemoryStorage.getSharedPreferences(), "NotificationCenter");
     }
@@ -59,6 +75,29 @@ public class PebbleNotificationCenter extends PebbleCompanionApplication
 		return settingsMemoryStorage;
 	}
 
+    public static AppColorCache getAppColorCache()
+    {
+        return appColorCache;
+    }
+
+    public static AppLabelCache getAppLabelCache()
+    {
+        return appLabelCache;
+    }
+
+    @Override
+    public void onConfigurationChanged(Configuration newConfig)
+    {
+        super.onConfigurationChanged(newConfig);
+
+        //App labels are localized
+        if (newConfig.locale != null && !newConfig.locale.equals(lastLocale))
+        {
+            lastLocale = newConfig.locale;
+            appLabelCache.clear();
+        }
+    }
+
     @Override
     public UUID getPebbleAppUUID()
     {
@@ -3,21 +3,30 @@ package com.matejdro.pebblenotificationcenter;
 import android.os.Parcel;
 import android.os.Parcelable;
 
-import com.matejdro.pebblenotificationcenter.notifications.actions.ReplaceNotificationAction;
-
-import java.util.ArrayList;
-import java.util.List;
+import com.matejdro.pebblenotificationcenter.util.TextChunker;
 
 public class ProcessedNotification implements Parcelable
 {
 	public int id;
-	public List<String> textChunks = new ArrayList<String>(13);
+    public byte[] textBytes;
+    public int[] textChunkEnds;
     public boolean vibrated = false;
     public int nextChunkToSend = -1;
     public boolean nativeNotification;
 
     public PebbleNotification source;
 
+    public int getNumberOfTextChunks()
+    {
+        return textChunkEnds == null ? 0 : textChunkEnds.length;
+    }
+
+    public String getTextChunk(int index)
+    {
+        int start = index == 0 ? 0 : textChunkEnds[index - 1];
+        return TextChunker.decode(textBytes, start, textChunkEnds[index]);
+    }
+
     @Override
     public int describeContents()
     {
@@ -28,7 +37,8 @@ public class ProcessedNotification implements Parcelable
     public void writeToParcel(Parcel parcel, int i)
     {
         parcel.writeInt(id);
-        parcel.writeValue(textChunks);
+        parcel.writeByteArray(textBytes);
+        parcel.writeIntArray(textChunkEnds);
         parcel.writeByte((byte) (vibrated ? 1 : 0));
         parcel.writeInt(nextChunkToSend);
         parcel.writeByte((byte) (nativeNotification ? 1 : 0));
@@ -42,7 +52,8 @@ public class ProcessedNotification implements Parcelable
         {
             ProcessedNotification notification = new ProcessedNotification();
             notification.id = parcel.readInt();
-            notification.textChunks = (List<String>) parcel.readValue(getClass().getClassLoader());
+            notification.textBytes = parcel.createByteArray();
+            notification.textChunkEnds = parcel.createIntArray();
             notification.vibrated = parcel.readByte() == 1;
             notification.nextChunkToSend = parcel.readInt();
             notification.nativeNotification = parcel.readByte() == 1;
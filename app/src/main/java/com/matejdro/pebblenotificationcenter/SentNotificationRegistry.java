@@ -0,0 +1,287 @@
+package com.matejdro.pebblenotificationcenter;
+
+import android.support.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Storage of all notifications that were sent to Pebble, indexed by Pebble ID and also by
+ * notification key, package, wear group and content fingerprint, so lookups do not need to scan all sent notifications.
+ *
+ * Entries are kept in order of last use (sending or interaction from the watch), so least recently used
+ * entries can be evicted with {@link #trim(int, long, Collection)}.
+ */
+public class SentNotificationRegistry
+{
+    private static final int MAX_REMEMBERED_EXPIRED_IDS = 500;
+
+    private LinkedHashMap<Integer, Entry> entries = new LinkedHashMap<Integer, Entry>();
+    private LinkedHashMap<Integer, Boolean> expiredIds = new LinkedHashMap<Integer, Boolean>()
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Boolean> eldest)
+        {
+            return size() > MAX_REMEMBERED_EXPIRED_IDS;
+        }
+    };
+
+    private HashMap<String, List<ProcessedNotification>> byKey = new HashMap<String, List<ProcessedNotification>>();
+    private HashMap<String, List<ProcessedNotification>> byPackage = new HashMap<String, List<ProcessedNotification>>();
+    private HashMap<String, List<ProcessedNotification>> byWearGroup = new HashMap<String, List<ProcessedNotification>>();
+    private HashMap<Long, ContentCounter> byContent = new HashMap<Long, ContentCounter>();
+
+    public @Nullable ProcessedNotification get(int id)
+    {
+        Entry entry = entries.get(id);
+        if (entry == null)
+            return null;
+
+        return entry.notification;
+    }
+
+    public boolean contains(int id)
+    {
+        return entries.containsKey(id);
+    }
+
+    /**
+     * @return <code>true</code> if notification with this ID was sent, but it was since evicted from memory.
+     */
+    public boolean isExpired(int id)
+    {
+        return expiredIds.containsKey(id);
+    }
+
+    /**
+     * Marks notification as recently used, so it will be the last to be evicted.
+     */
+    public void touch(int id)
+    {
+        Entry entry = entries.remove(id);
+        if (entry == null)
+            return;
+
+        entry.lastUsed = System.currentTimeMillis();
+        entries.put(id, entry);
+    }
+
+    public int size()
+    {
+        return entries.size();
+    }
+
+    public void put(ProcessedNotification notification)
+    {
+        remove(notification.id);
+
+        //Index keys are stored with the entry, so entry can be removed from indexes even if notification was changed in the meantime
+        Entry entry = new Entry();
+        entry.notification = notification;
+        entry.keyIndex = getKeyIndex(notification.source.getKey());
+        entry.packageIndex = notification.source.getKey().getPackage();
+        entry.wearGroupIndex = notification.source.getWearGroupType() == PebbleNotification.WEAR_GROUP_TYPE_DISABLED ? null : notification.source.getWearGroupKey();
+        entry.contentFingerprint = notification.source.getContentFingerprint();
+        entry.summary = notification.source.getWearGroupType() == PebbleNotification.WEAR_GROUP_TYPE_GROUP_SUMMARY;
+        entry.lastUsed = System.currentTimeMillis();
+
+        entries.put(notification.id, entry);
+        expiredIds.remove(notification.id);
+
+        addToIndex(byKey, entry.keyIndex, notification);
+        addToIndex(byPackage, entry.packageIndex, notification);
+        addToIndex(byWearGroup, entry.wearGroupIndex, notification);
+        addToContentIndex(entry);
+    }
+
+    public @Nullable ProcessedNotification remove(int id)
+    {
+        Entry entry = entries.remove(id);
+        if (entry == null)
+            return null;
+
+        removeFromIndexes(entry);
+        return entry.notification;
+    }
+
+    /**
+     * Evicts least recently used notifications until there are at most <code>maxCount</code> of them
+     * and none of them was unused for longer than <code>maxAge</code> milliseconds.
+     *
+     * @param pinnedIds IDs of notifications that must not be evicted (for example because they are still waiting to be sent)
+     */
+    public void trim(int maxCount, long maxAge, Collection<Integer> pinnedIds)
+    {
+        long now = System.currentTimeMillis();
+        int count = entries.size();
+
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext())
+        {
+            Entry entry = iterator.next();
+            boolean expired = now - entry.lastUsed > maxAge;
+            if (count <= maxCount && !expired)
+                break;
+
+            if (pinnedIds.contains(entry.notification.id))
+                continue;
+
+            iterator.remove();
+            removeFromIndexes(entry);
+            expiredIds.put(entry.notification.id, true);
+            count--;
+        }
+    }
+
+    private void removeFromIndexes(Entry entry)
+    {
+        removeFromIndex(byKey, entry.keyIndex, entry.notification);
+        removeFromIndex(byPackage, entry.packageIndex, entry.notification);
+        removeFromIndex(byWearGroup, entry.wearGroupIndex, entry.notification);
+        removeFromContentIndex(entry);
+    }
+
+    /**
+     * @return all sent notifications that represent same Android notification as the key
+     */
+    public List<ProcessedNotification> getByKey(NotificationKey key)
+    {
+        List<ProcessedNotification> candidates = byKey.get(getKeyIndex(key));
+        if (candidates == null)
+            return Collections.emptyList();
+
+        List<ProcessedNotification> result = new ArrayList<ProcessedNotification>(candidates.size());
+        for (ProcessedNotification notification : candidates)
+        {
+            if (notification.source.isSameNotification(key))
+                result.add(notification);
+        }
+
+        return result;
+    }
+
+    public List<ProcessedNotification> getByPackage(String pkg)
+    {
+        return copyOf(byPackage.get(pkg));
+    }
+
+    /**
+     * @return all sent notifications from the wear group with specified key
+     */
+    public List<ProcessedNotification> getByWearGroup(String wearGroupKey)
+    {
+        return copyOf(byWearGroup.get(wearGroupKey));
+    }
+
+    /**
+     * Checks whether notification with identical content was already sent, using only content fingerprint of the notification.
+     *
+     * @param includeGroupSummaries whether wear group summary notifications should be considered as duplicates
+     */
+    public boolean containsIdenticalContent(PebbleNotification notification, boolean includeGroupSummaries)
+    {
+        ContentCounter counter = byContent.get(notification.getContentFingerprint());
+        if (counter == null)
+            return false;
+
+        return counter.regular > 0 || (includeGroupSummaries && counter.summaries > 0);
+    }
+
+    private static @Nullable String getKeyIndex(NotificationKey key)
+    {
+        //Keys without package or ID can never equal any other key
+        if (key == null || key.getPackage() == null || key.getAndroidId() == null)
+            return null;
+
+        return key.getPackage() + "|" + key.getAndroidId() + "|" + key.getTag();
+    }
+
+    private void addToContentIndex(Entry entry)
+    {
+        ContentCounter counter = byContent.get(entry.contentFingerprint);
+        if (counter == null)
+        {
+            counter = new ContentCounter();
+            byContent.put(entry.contentFingerprint, counter);
+        }
+
+        if (entry.summary)
+            counter.summaries++;
+        else
+            counter.regular++;
+    }
+
+    private void removeFromContentIndex(Entry entry)
+    {
+        ContentCounter counter = byContent.get(entry.contentFingerprint);
+        if (counter == null)
+            return;
+
+        if (entry.summary)
+            counter.summaries--;
+        else
+            counter.regular--;
+
+        if (counter.regular <= 0 && counter.summaries <= 0)
+            byContent.remove(entry.contentFingerprint);
+    }
+
+    private static <K> void addToIndex(HashMap<K, List<ProcessedNotification>> index, K key, ProcessedNotification notification)
+    {
+        if (key == null)
+            return;
+
+        List<ProcessedNotification> list = index.get(key);
+        if (list == null)
+        {
+            list = new ArrayList<ProcessedNotification>(2);
+            index.put(key, list);
+        }
+
+        list.add(notification);
+    }
+
+    private static <K> void removeFromIndex(HashMap<K, List<ProcessedNotification>> index, K key, ProcessedNotification notification)
+    {
+        if (key == null)
+            return;
+
+        List<ProcessedNotification> list = index.get(key);
+        if (list == null)
+            return;
+
+        list.remove(notification);
+        if (list.isEmpty())
+            index.remove(key);
+    }
+
+    private static List<ProcessedNotification> copyOf(List<ProcessedNotification> list)
+    {
+        if (list == null)
+            return Collections.emptyList();
+
+        return new ArrayList<ProcessedNotification>(list);
+    }
+
+    private static class Entry
+    {
+        ProcessedNotification notification;
+        String keyIndex;
+        String packageIndex;
+        String wearGroupIndex;
+        long contentFingerprint;
+        boolean summary;
+        long lastUsed;
+    }
+
+    private static class ContentCounter
+    {
+        int regular;
+        int summaries;
+    }
+}
@@ -1,6 +1,9 @@
 package com.matejdro.pebblenotificationcenter.appsetting;
 
+import com.matejdro.pebblenotificationcenter.notifications.NotificationIngestionQueue;
+import com.matejdro.pebblenotificationcenter.pebble.NotificationSendingQueue;
 import com.matejdro.pebblenotificationcenter.pebble.modules.NotificationSendingModule;
+import com.matejdro.pebblenotificationcenter.util.RegexFilter;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -25,6 +28,7 @@ public enum AppSetting
     SWITCH_TO_MOST_RECENT_NOTIFICATION("autoSwitch", false),
     DISMISS_UPRWADS("syncDismissUp", true),
     SAVE_TO_HISTORY("saveToHistory", true),
+    HISTORY_APP_LIMIT("historyAppLimit", "0"),
     CUSTOM_TITLE("customTitle", ""),
     MAXIMUM_TEXT_LENGTH("maximumTextLength", Integer.toString(NotificationSendingModule.TEXT_LIMIT)),
     USE_WEAR_GROUP_NOTIFICATIONS("useWearGroupNotifications", true),
@@ -35,6 +39,8 @@ public enum AppSetting
     BOCY_FONT("fontBody", 4),
     HIDE_NOTIFICATION_TEXT("hideNotiifcationText", false),
     STATUSBAR_COLOR("statusbarColor", 0x00000000),
+    SENDING_PRIORITY("sendingPriority", NotificationSendingQueue.PRIORITY_NORMAL),
+    INGESTION_DROP_POLICY("ingestionDropPolicy", NotificationIngestionQueue.DROP_OLDEST),
 
     USE_ALTERNATE_INBOX_PARSER("useInboxParser", true),
     INBOX_REVERSE("inboxReverse", false),
@@ -63,6 +69,7 @@ public enum AppSetting
     PERIODIC_VIBRATION("settingPeriodicVibration", "20"),
     MINIMUM_VIBRATION_INTERVAL("minimumVibrationInterval", "0"),
     MINIMUM_NOTIFICATION_INTERVAL("minimumNotificationInterval", "0"),
+    UPDATE_DEBOUNCE_WINDOW("updateDebounceWindow", "1000"),
     INCLUDED_REGEX("WhitelistRegexes", null),
     EXCLUDED_REGEX("BlacklistRegexes", null);
 
@@ -89,6 +96,35 @@ public enum AppSetting
     public static final String VIRTUAL_APP_THIRD_PARTY = "com.matejdro.pebblenotificationcenter.virtual.thirdparty";
     public static final String VIRTUAL_APP_TASKER_RECEIVER = "com.matejdro.pebblenotificationcenter.virtual.taskerReceiver";
 
+    /**
+     * Parses integer from setting that is stored as a string. Pre-parsed value is used when storage is {@link AppSettingsSnapshot}.
+     */
+    public static int parseInt(AppSettingStorage storage, AppSetting setting, int fallback)
+    {
+        if (storage instanceof AppSettingsSnapshot)
+            return ((AppSettingsSnapshot) storage).getParsedInt(setting, fallback);
+
+        try
+        {
+            return Integer.parseInt(storage.getString(setting));
+        }
+        catch (NumberFormatException e)
+        {
+            return fallback;
+        }
+    }
+
+    /**
+     * @return filter for the regex list setting. Filter is only compiled once per settings change when storage is {@link AppSettingsSnapshot}.
+     */
+    public static RegexFilter getRegexFilter(AppSettingStorage storage, AppSetting setting)
+    {
+        if (storage instanceof AppSettingsSnapshot)
+            return ((AppSettingsSnapshot) storage).getRegexFilter(setting);
+
+        return RegexFilter.compile(storage.getStringList(setting));
+    }
+
     public static List<Byte> parseVibrationPattern(AppSettingStorage storage)
     {
         String pattern = storage.getString(VIBRATION_PATTERN);
@@ -0,0 +1,134 @@
+package com.matejdro.pebblenotificationcenter.appsetting;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.LruCache;
+import com.matejdro.pebblenotificationcenter.PebbleNotificationCenter;
+import com.matejdro.pebblenotificationcenter.util.SettingsMemoryStorage;
+import java.util.HashMap;
+
+/**
+ * Keeps {@link AppSettingsSnapshot} of most recently used apps in memory,
+ * so bursts of notifications from one app do not hit SharedPreferences on every notification.
+ *
+ * Snapshots are invalidated whenever app's preferences or relevant default preferences change.
+ */
+public class AppSettingsCache
+{
+    private static final int MAX_CACHED_APPS = 30;
+
+    private Context context;
+    private SettingsMemoryStorage settingsMemoryStorage;
+    private SharedPreferences defaultPreferences;
+
+    private LruCache<String, AppSettingsSnapshot> snapshots;
+    private HashMap<SharedPreferences, String> listenedPreferences;
+    private volatile int generation = 0;
+
+    //SharedPreferences only keep weak references to listeners, so we must keep strong one here
+    private SharedPreferences.OnSharedPreferenceChangeListener changeListener;
+
+    public AppSettingsCache(Context context, SettingsMemoryStorage settingsMemoryStorage, SharedPreferences defaultPreferences)
+    {
+        this.context = context;
+        this.settingsMemoryStorage = settingsMemoryStorage;
+        this.defaultPreferences = defaultPreferences;
+
+        snapshots = new LruCache<String, AppSettingsSnapshot>(MAX_CACHED_APPS);
+        listenedPreferences = new HashMap<SharedPreferences, String>();
+
+        changeListener = new SharedPreferences.OnSharedPreferenceChangeListener()
+        {
+            @Override
+            public void onSharedPreferenceChanged(SharedPreferences sharedPreferences, String key)
+            {
+                if (sharedPreferences == AppSettingsCache.this.defaultPreferences)
+                {
+                    if (isAppSettingKey(key))
+                        invalidateAll();
+
+                    return;
+                }
+
+                String pkg;
+                synchronized (AppSettingsCache.this)
+                {
+                    pkg = listenedPreferences.get(sharedPreferences);
+                }
+
+                if (pkg != null)
+                    invalidate(pkg);
+            }
+        };
+
+        defaultPreferences.registerOnSharedPreferenceChangeListener(changeListener);
+    }
+
+    public AppSettingsSnapshot get(String pkg)
+    {
+        AppSettingsSnapshot snapshot = snapshots.get(pkg);
+        if (snapshot != null)
+            return snapshot;
+
+        int startGeneration = generation;
+
+        SharedPreferencesAppStorage storage = new SharedPreferencesAppStorage(context, pkg, settingsMemoryStorage.getDefaultSettingsStorage());
+        listenForChanges(pkg);
+
+        snapshot = new AppSettingsSnapshot(storage);
+
+        //Do not cache snapshot if settings changed while we were loading it
+        if (startGeneration == generation)
+            snapshots.put(pkg, snapshot);
+
+        return snapshot;
+    }
+
+    /**
+     * @return snapshot of the app's settings if it is already in memory or <code>null</code> otherwise. Never touches SharedPreferences.
+     */
+    public AppSettingsSnapshot getIfCached(String pkg)
+    {
+        return snapshots.get(pkg);
+    }
+
+    public void invalidate(String pkg)
+    {
+        generation++;
+        snapshots.remove(pkg);
+    }
+
+    public void invalidateAll()
+    {
+        generation++;
+        snapshots.evictAll();
+    }
+
+    private synchronized void listenForChanges(String pkg)
+    {
+        SharedPreferences appPreferences = context.getSharedPreferences(SharedPreferencesAppStorage.getSharedPreferencesName(pkg), Context.MODE_PRIVATE);
+        if (listenedPreferences.containsKey(appPreferences))
+            return;
+
+        listenedPreferences.put(appPreferences, pkg);
+        appPreferences.registerOnSharedPreferenceChangeListener(changeListener);
+    }
+
+    private static boolean isAppSettingKey(String key)
+    {
+        if (key == null)
+            return true;
+
+        if (key.startsWith("appChecked_") || key.equals(PebbleNotificationCenter.APP_INCLUSION_MODE))
+            return true;
+
+        //String lists are stored in multiple keys with index appended at the end, so prefix match is needed
+        for (AppSetting setting : AppSetting.values())
+        {
+            if (key.startsWith(setting.getKey()))
+                return true;
+        }
+
+        return false;
+    }
+}
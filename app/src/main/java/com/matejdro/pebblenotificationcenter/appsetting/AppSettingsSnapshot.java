@@ -0,0 +1,192 @@
+package com.matejdro.pebblenotificationcenter.appsetting;
+
+import com.matejdro.pebblenotificationcenter.util.RegexFilter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Immutable copy of all settings of one app, already merged with default settings.
+ * Numeric settings that are stored as strings are parsed once when snapshot is created.
+ *
+ * Writes are passed through to the original storage (which will in turn invalidate this snapshot via {@link AppSettingsCache}).
+ */
+public class AppSettingsSnapshot implements AppSettingStorage
+{
+    private final AppSettingStorage source;
+
+    private final Object[] values;
+    private final Integer[] parsedNumbers;
+    private final boolean appChecked;
+    private final boolean canSendNotifications;
+    private final RegexFilter includedRegexFilter;
+    private final RegexFilter excludedRegexFilter;
+
+    public AppSettingsSnapshot(AppSettingStorage source)
+    {
+        this.source = source;
+
+        AppSetting[] settings = AppSetting.values();
+        values = new Object[settings.length];
+        parsedNumbers = new Integer[settings.length];
+
+        for (AppSetting setting : settings)
+        {
+            int index = setting.ordinal();
+            Object def = setting.getDefault();
+
+            try
+            {
+                if (def == null)
+                {
+                    values[index] = source.getStringList(setting);
+                }
+                else if (def instanceof Boolean)
+                {
+                    values[index] = source.getBoolean(setting);
+                }
+                else if (def instanceof Integer)
+                {
+                    int value = source.getInt(setting);
+                    values[index] = value;
+                    parsedNumbers[index] = value;
+                }
+                else
+                {
+                    String value = source.getString(setting);
+                    values[index] = value;
+
+                    try
+                    {
+                        if (value != null)
+                            parsedNumbers[index] = Integer.parseInt(value.trim());
+                    }
+                    catch (NumberFormatException e)
+                    {
+                    }
+                }
+            }
+            catch (ClassCastException e)
+            {
+                //Setting is stored in unexpected format. Leave it empty, getters will fall back to the original storage.
+            }
+            catch (NumberFormatException e)
+            {
+                //Number setting that is stored as malformed string. Same as above, only reading this setting should fail.
+            }
+        }
+
+        appChecked = source.isAppChecked();
+        canSendNotifications = source.canAppSendNotifications();
+
+        includedRegexFilter = RegexFilter.compile(getStringList(AppSetting.INCLUDED_REGEX));
+        excludedRegexFilter = RegexFilter.compile(getStringList(AppSetting.EXCLUDED_REGEX));
+    }
+
+    @Override
+    public String getString(AppSetting setting)
+    {
+        Object value = values[setting.ordinal()];
+        if (value instanceof String)
+            return (String) value;
+
+        return source.getString(setting);
+    }
+
+    @Override
+    public boolean getBoolean(AppSetting setting)
+    {
+        Object value = values[setting.ordinal()];
+        if (value instanceof Boolean)
+            return (Boolean) value;
+
+        return source.getBoolean(setting);
+    }
+
+    @Override
+    public int getInt(AppSetting setting)
+    {
+        Integer value = parsedNumbers[setting.ordinal()];
+        if (value != null)
+            return value;
+
+        return source.getInt(setting);
+    }
+
+    /**
+     * @return value of the setting parsed as integer or <code>fallback</code> if setting is not a valid number.
+     */
+    public int getParsedInt(AppSetting setting, int fallback)
+    {
+        Integer value = parsedNumbers[setting.ordinal()];
+        if (value != null)
+            return value;
+
+        return fallback;
+    }
+
+    /**
+     * @return compiled filter for {@link AppSetting#INCLUDED_REGEX} or {@link AppSetting#EXCLUDED_REGEX}.
+     */
+    public RegexFilter getRegexFilter(AppSetting setting)
+    {
+        if (setting == AppSetting.INCLUDED_REGEX)
+            return includedRegexFilter;
+        else if (setting == AppSetting.EXCLUDED_REGEX)
+            return excludedRegexFilter;
+
+        return RegexFilter.compile(getStringList(setting));
+    }
+
+    @Override
+    public List<String> getStringList(AppSetting setting)
+    {
+        Object value = values[setting.ordinal()];
+        if (value instanceof List)
+            return new ArrayList<String>((List<String>) value);
+
+        return source.getStringList(setting);
+    }
+
+    @Override
+    public void setString(AppSetting setting, String val)
+    {
+        source.setString(setting, val);
+    }
+
+    @Override
+    public void setBoolean(AppSetting setting, boolean val)
+    {
+        source.setBoolean(setting, val);
+    }
+
+    @Override
+    public void setInt(AppSetting setting, int val)
+    {
+        source.setInt(setting, val);
+    }
+
+    @Override
+    public void setStringList(AppSetting setting, Collection<String> val)
+    {
+        source.setStringList(setting, val);
+    }
+
+    @Override
+    public boolean isAppChecked()
+    {
+        return appChecked;
+    }
+
+    @Override
+    public void setAppChecked(boolean checked)
+    {
+        source.setAppChecked(checked);
+    }
+
+    @Override
+    public boolean canAppSendNotifications()
+    {
+        return canSendNotifications;
+    }
+}
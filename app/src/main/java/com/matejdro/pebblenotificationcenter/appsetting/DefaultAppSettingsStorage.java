@@ -108,6 +108,21 @@ public class DefaultAppSettingsStorage implements AppSettingStorage
         return preferences.getBoolean("appChecked_".concat(pkg), false);
     }
 
+    /**
+     * @return packages of all apps that are checked in the app list
+     */
+    public List<String> getCheckedApps()
+    {
+        List<String> packages = new ArrayList<String>();
+        for (String key : preferences.getAll().keySet())
+        {
+            if (key.startsWith("appChecked_"))
+                packages.add(key.substring("appChecked_".length()));
+        }
+
+        return packages;
+    }
+
     public void setAppChecked(String pkg, boolean checked)
     {
         if (checked)
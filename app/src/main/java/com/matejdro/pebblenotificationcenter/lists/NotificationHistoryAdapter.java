@@ -1,58 +1,151 @@
 package com.matejdro.pebblenotificationcenter.lists;
 
 import android.content.Context;
-import android.content.Intent;
+import android.database.Cursor;
+import android.util.LruCache;
 import com.matejdro.pebblenotificationcenter.NotificationHistoryStorage;
 import com.matejdro.pebblenotificationcenter.NotificationKey;
 import com.matejdro.pebblenotificationcenter.PebbleNotification;
 import com.matejdro.pebblenotificationcenter.pebble.modules.ListModule;
-import com.matejdro.pebblenotificationcenter.pebble.modules.NotificationSendingModule;
-import java.util.ArrayList;
-import java.util.List;
-
-import android.database.Cursor;
 
+/**
+ * List of notifications from history. Titles and subtitles are loaded from database in pages when watch asks for them
+ * and full text is only loaded when watch opens the notification, so opening the list does not depend on size of the history.
+ */
 public class NotificationHistoryAdapter implements NotificationListAdapter {
-	private List<PebbleNotification> notifications;
+	private static final int PAGE_SIZE = 20;
+	private static final int MAX_CACHED_PAGES = 5;
+	private static final int MAX_CACHED_NOTIFICATIONS = 10;
+	private static final int MAX_ENTRIES = 0xFFFF;
+
+	private Context context;
 	private NotificationHistoryStorage storage;
+	private String query;
+
+	private long maxId;
+	private int count;
+
+	private LruCache<Integer, Page> pages = new LruCache<Integer, Page>(MAX_CACHED_PAGES);
+	private LruCache<Integer, PebbleNotification> fullNotifications = new LruCache<Integer, PebbleNotification>(MAX_CACHED_NOTIFICATIONS);
 	
 	public NotificationHistoryAdapter(Context context, NotificationHistoryStorage storage) {
+		this(context, storage, null);
+	}
+
+	/**
+	 * @param query when not <code>null</code>, only notifications that match this full text query are listed.
+	 */
+	public NotificationHistoryAdapter(Context context, NotificationHistoryStorage storage, String query) {
+		this.context = context;
 		this.storage = storage;
-		
-		loadNotifications(context);
+		this.query = query;
+
+		storage.awaitPendingWrites();
+
+		//Notifications written after list was opened are not listed, so positions of entries stay the same
+		maxId = storage.getNewestId();
+		if (query == null)
+			count = storage.getNotificationCount();
+		else
+			count = storage.getSearchResultCount(query);
+
+		count = Math.min(count, MAX_ENTRIES);
 	}
-	
-	public void loadNotifications(Context context)
+
+	@Override
+	public PebbleNotification getNotificationAt(int index) {
+		PebbleNotification notification = fullNotifications.get(index);
+		if (notification != null)
+			return notification;
+
+		Page page = getPage(index);
+		int indexInPage = index % PAGE_SIZE;
+		if (indexInPage >= page.entries.length)
+			return null;
+
+		PebbleNotification listEntry = page.entries[indexInPage];
+
+		String text = storage.getText(page.ids[indexInPage]);
+		if (text == null)
+			text = "";
+		text += "\n\nSent on " + ListModule.getFormattedDate(context, listEntry.getRawPostTime());
+
+		notification = createNotification(listEntry.getTitle(), listEntry.getSubtitle(), text, listEntry.getRawPostTime());
+		fullNotifications.put(index, notification);
+
+		return notification;
+	}
+
+	@Override
+	public PebbleNotification getListEntryAt(int index) {
+		Page page = getPage(index);
+
+		int indexInPage = index % PAGE_SIZE;
+		if (indexInPage >= page.entries.length)
+			return null;
+
+		return page.entries[indexInPage];
+	}
+
+	@Override
+	public int getNumOfNotifications() {
+		return count;
+	}
+
+	/**
+	 * @return page that contains entry at specified list index
+	 */
+	private Page getPage(int index)
+	{
+		int pageIndex = index / PAGE_SIZE;
+
+		Page page = pages.get(pageIndex);
+		if (page == null)
+		{
+			page = loadPage(pageIndex);
+			pages.put(pageIndex, page);
+		}
+
+		return page;
+	}
+
+	private Page loadPage(int pageIndex)
 	{
-		Cursor cursor = storage.getReadableDatabase().rawQuery("SELECT PostTime, Title, Subtitle, Text FROM notifications ORDER BY PostTime DESC LIMIT 150", null);
-		notifications = new ArrayList<PebbleNotification>(cursor.getCount());
-		
-		while (cursor.moveToNext())
+		Cursor cursor = storage.getPage(query, maxId, pageIndex * PAGE_SIZE, PAGE_SIZE);
+		int size = cursor.getCount();
+
+		Page page = new Page();
+		page.ids = new long[size];
+		page.entries = new PebbleNotification[size];
+
+		int i = 0;
+		while (cursor.moveToNext() && i < size)
 		{
-            long sendingDate = cursor.getLong(0);
-            String title = cursor.getString(1);
-            String text = cursor.getString(3) + "\n\nSent on " + ListModule.getFormattedDate(context, sendingDate);
-            NotificationKey key = new NotificationKey(null, null, null);
-
-            PebbleNotification notification = new PebbleNotification(title, text, key);
-			notification.setSubtitle(cursor.getString(2));
-			notification.setPostTime(sendingDate);
-            notification.setListNotification(true);
-			notification.setDismissable(true);
-
-			notifications.add(notification);
+			page.ids[i] = cursor.getLong(0);
+			page.entries[i] = createNotification(cursor.getString(2), cursor.getString(3), "", cursor.getLong(1));
+			i++;
 		}
 
 		cursor.close();
+		return page;
 	}
 
-	@Override
-	public PebbleNotification getNotificationAt(int index) {
-		return notifications.get(index);
+	private static PebbleNotification createNotification(String title, String subtitle, String text, long postTime)
+	{
+		NotificationKey key = new NotificationKey(null, null, null);
+
+		PebbleNotification notification = new PebbleNotification(title, text, key);
+		notification.setSubtitle(subtitle);
+		notification.setPostTime(postTime);
+		notification.setListNotification(true);
+		notification.setDismissable(true);
+
+		return notification;
 	}
 
-	@Override
-	public int getNumOfNotifications() {
-		return notifications.size();
+	private static class Page
+	{
+		long[] ids;
+		PebbleNotification[] entries;
 	}
 }
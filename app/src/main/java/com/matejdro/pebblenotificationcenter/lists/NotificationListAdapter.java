@@ -11,5 +11,10 @@ import timber.log.Timber;
 
 public interface NotificationListAdapter {
 	public PebbleNotification getNotificationAt(int index);
+
+	/**
+	 * @return notification that is only used to display entry in the list. Only title, subtitle, post time and dismissable flag need to be set.
+	 */
+	public PebbleNotification getListEntryAt(int index);
 	public int getNumOfNotifications();
 }
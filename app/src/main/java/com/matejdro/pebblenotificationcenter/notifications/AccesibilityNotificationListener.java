@@ -34,7 +34,7 @@ public class AccesibilityNotificationListener extends AccessibilityService {
 		Notification notification = (Notification) parcelable;
 
         Timber.d("Got new accessibility notification");
-        NotificationHandler.newNotification(this, new NotificationKey(event.getPackageName().toString(), null, null), notification, false);
+        NotificationIngestionQueue.post(this, new NotificationKey(event.getPackageName().toString(), null, null), notification, false);
 	}
 
 	@Override
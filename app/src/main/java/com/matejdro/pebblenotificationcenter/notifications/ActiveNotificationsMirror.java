@@ -0,0 +1,314 @@
+package com.matejdro.pebblenotificationcenter.notifications;
+
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.os.Build;
+import android.service.notification.StatusBarNotification;
+import com.matejdro.pebblenotificationcenter.NotificationKey;
+import com.matejdro.pebblenotificationcenter.PebbleNotification;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import timber.log.Timber;
+
+/**
+ * In-process copy of notifications that are currently displayed in the status bar, already parsed and sorted for the "Current" list.
+ *
+ * Mirror is filled with one {@link JellybeanNotificationListener#getCurrentNotifications()} call when it is first needed and then kept up to date
+ * from notification listener callbacks. Callbacks only remember the newest version of every posted notification. Changed notifications
+ * are parsed when list is opened, outside of the lock, so listener callbacks are never blocked by loading or parsing.
+ */
+@TargetApi(value = Build.VERSION_CODES.JELLY_BEAN_MR2)
+public class ActiveNotificationsMirror
+{
+    private static final Comparator<PebbleNotification> LIST_ORDER = new Comparator<PebbleNotification>()
+    {
+        @Override
+        public int compare(PebbleNotification lhs, PebbleNotification rhs)
+        {
+            //First sort by normal/onging, then by date.
+            if (lhs.isDismissable() != rhs.isDismissable())
+                return lhs.isDismissable() ? -1 : 1;
+
+            long lhsTime = lhs.getRawPostTime();
+            long rhsTime = rhs.getRawPostTime();
+            return lhsTime < rhsTime ? 1 : (lhsTime == rhsTime ? 0 : -1);
+        }
+    };
+
+    private static final Object lock = new Object();
+    //Serializes callers of getNotifications(), so only one refresh runs at once. Listener callbacks never take it.
+    private static final Object refreshLock = new Object();
+    private static boolean initialized = false;
+    private static HashMap<String, PebbleNotification> notificationsByKey = new HashMap<String, PebbleNotification>();
+    private static ArrayList<PebbleNotification> sortedNotifications = new ArrayList<PebbleNotification>();
+    private static PebbleNotification[] snapshot;
+
+    //Latest version of every notification that was posted since it was last parsed. Listener callbacks only store it here.
+    private static LinkedHashMap<String, StatusBarNotification> pendingUpdates = new LinkedHashMap<String, StatusBarNotification>();
+
+    //Loading and parsing is done outside of the lock. Notifications removed in the meantime are remembered here,
+    //so their parsed copies are not put back into the mirror.
+    private static boolean refreshing = false;
+    private static int generation = 0;
+    private static HashSet<String> removedDuringRefresh = new HashSet<String>();
+
+    /**
+     * @return all active notifications in list order. Returned array and notifications are shared and must not be modified.
+     */
+    public static PebbleNotification[] getNotifications(Context context)
+    {
+        synchronized (refreshLock)
+        {
+            boolean needsLoad;
+            synchronized (lock)
+            {
+                needsLoad = !initialized;
+            }
+
+            if (needsLoad)
+                load(context);
+            else
+                parsePendingUpdates(context);
+
+            synchronized (lock)
+            {
+                if (snapshot == null)
+                    snapshot = sortedNotifications.toArray(new PebbleNotification[sortedNotifications.size()]);
+
+                return snapshot;
+            }
+        }
+    }
+
+    public static void onNotificationPosted(StatusBarNotification sbn)
+    {
+        synchronized (lock)
+        {
+            //Nothing to update until mirror starts loading for the first time
+            if (!initialized && !refreshing)
+                return;
+
+            //Only the newest version is kept. It is parsed when list is opened next time.
+            pendingUpdates.put(getMirrorKey(NotificationHandler.getKeyFromSbn(sbn)), sbn);
+        }
+    }
+
+    public static void onNotificationRemoved(NotificationKey key)
+    {
+        synchronized (lock)
+        {
+            if (!initialized && !refreshing)
+                return;
+
+            String mirrorKey = getMirrorKey(key);
+            pendingUpdates.remove(mirrorKey);
+            removeEntry(mirrorKey);
+
+            if (refreshing)
+                removedDuringRefresh.add(mirrorKey);
+        }
+    }
+
+    /**
+     * Forgets all notifications. Called when notification listener is stopped and mirror cannot be kept up to date anymore.
+     */
+    public static void reset()
+    {
+        synchronized (lock)
+        {
+            initialized = false;
+            refreshing = false;
+            generation++;
+            removedDuringRefresh.clear();
+            pendingUpdates.clear();
+            notificationsByKey.clear();
+            sortedNotifications.clear();
+            snapshot = null;
+        }
+    }
+
+    private static void load(Context context)
+    {
+        Timber.d("Loading active notifications mirror");
+
+        int startGeneration;
+        synchronized (lock)
+        {
+            startGeneration = startRefresh();
+            pendingUpdates.clear();
+        }
+
+        //Binder call and parsing are done outside of the lock, so listener callbacks are not blocked while list is opening
+        StatusBarNotification[] sbns = JellybeanNotificationListener.getCurrentNotifications();
+        if (sbns == null)
+            sbns = new StatusBarNotification[0];
+
+        HashMap<String, PebbleNotification> loaded = new HashMap<String, PebbleNotification>();
+        for (StatusBarNotification sbn : sbns)
+        {
+            PebbleNotification notification = parse(context, sbn);
+            if (notification != null)
+                loaded.put(getMirrorKey(notification.getKey()), notification);
+        }
+
+        boolean listenerRunning;
+        synchronized (lock)
+        {
+            //Mirror was reset while it was loading
+            if (startGeneration != generation)
+                return;
+
+            notificationsByKey.clear();
+            sortedNotifications.clear();
+            snapshot = null;
+
+            for (Map.Entry<String, PebbleNotification> entry : loaded.entrySet())
+            {
+                if (isStale(entry.getKey()))
+                    continue;
+
+                notificationsByKey.put(entry.getKey(), entry.getValue());
+            }
+
+            sortedNotifications.addAll(notificationsByKey.values());
+            Collections.sort(sortedNotifications, LIST_ORDER);
+
+            finishRefresh();
+
+            //Mirror can only be kept up to date while listener is running
+            initialized = JellybeanNotificationListener.instance != null;
+            if (!initialized)
+                pendingUpdates.clear();
+
+            listenerRunning = initialized;
+        }
+
+        //Notifications posted during the load
+        if (listenerRunning)
+            parsePendingUpdates(context);
+    }
+
+    /**
+     * Parses notifications that changed since the list was last opened. Unchanged notifications are not parsed again.
+     */
+    private static void parsePendingUpdates(Context context)
+    {
+        int startGeneration;
+        ArrayList<StatusBarNotification> updates;
+        synchronized (lock)
+        {
+            if (pendingUpdates.isEmpty())
+                return;
+
+            startGeneration = startRefresh();
+            updates = new ArrayList<StatusBarNotification>(pendingUpdates.values());
+            pendingUpdates.clear();
+        }
+
+        ArrayList<PebbleNotification> parsed = new ArrayList<PebbleNotification>(updates.size());
+        for (StatusBarNotification sbn : updates)
+            parsed.add(parse(context, sbn));
+
+        synchronized (lock)
+        {
+            if (startGeneration != generation)
+                return;
+
+            for (int i = 0; i < updates.size(); i++)
+            {
+                String mirrorKey = getMirrorKey(NotificationHandler.getKeyFromSbn(updates.get(i)));
+                if (isStale(mirrorKey))
+                    continue;
+
+                removeEntry(mirrorKey);
+
+                PebbleNotification notification = parsed.get(i);
+                if (notification != null)
+                    addEntry(mirrorKey, notification);
+            }
+
+            finishRefresh();
+        }
+    }
+
+    /**
+     * Must be called under the lock.
+     */
+    private static int startRefresh()
+    {
+        refreshing = true;
+        removedDuringRefresh.clear();
+        return ++generation;
+    }
+
+    /**
+     * Must be called under the lock.
+     */
+    private static void finishRefresh()
+    {
+        refreshing = false;
+        removedDuringRefresh.clear();
+    }
+
+    /**
+     * @return <code>true</code> if notification was removed or posted again while it was being parsed
+     */
+    private static boolean isStale(String mirrorKey)
+    {
+        return removedDuringRefresh.contains(mirrorKey) || pendingUpdates.containsKey(mirrorKey);
+    }
+
+    private static PebbleNotification parse(Context context, StatusBarNotification sbn)
+    {
+        try
+        {
+            PebbleNotification notification = NotificationHandler.getPebbleNotificationFromAndroidNotification(context, NotificationHandler.getKeyFromSbn(sbn), sbn.getNotification(), sbn.isClearable());
+            if (notification == null)
+                return null;
+
+            notification.setListNotification(true);
+            notification.setPostTime(sbn.getPostTime());
+            return notification;
+        }
+        catch (RuntimeException e)
+        {
+            Timber.e(e, "Parsing active notification failed");
+            return null;
+        }
+    }
+
+    private static void addEntry(String mirrorKey, PebbleNotification notification)
+    {
+        notificationsByKey.put(mirrorKey, notification);
+
+        int position = Collections.binarySearch(sortedNotifications, notification, LIST_ORDER);
+        if (position < 0)
+            position = -position - 1;
+        sortedNotifications.add(position, notification);
+
+        snapshot = null;
+    }
+
+    private static void removeEntry(String mirrorKey)
+    {
+        PebbleNotification notification = notificationsByKey.remove(mirrorKey);
+        if (notification == null)
+            return;
+
+        sortedNotifications.remove(notification);
+        snapshot = null;
+    }
+
+    private static String getMirrorKey(NotificationKey key)
+    {
+        if (key.getLolipopKey() != null)
+            return key.getLolipopKey();
+
+        return key.getPackage() + "|" + key.getAndroidId() + "|" + key.getTag();
+    }
+}
@@ -7,7 +7,6 @@ import android.os.Handler;
 import android.service.notification.NotificationListenerService;
 import android.service.notification.StatusBarNotification;
 import com.matejdro.pebblenotificationcenter.NotificationKey;
-import com.matejdro.pebblenotificationcenter.pebble.modules.DismissUpwardsModule;
 import timber.log.Timber;
 
 @TargetApi(value = Build.VERSION_CODES.JELLY_BEAN_MR2)
@@ -21,6 +20,7 @@ public class JellybeanNotificationListener extends NotificationListenerService {
         Timber.d("Notification Listener stopped...");
 
         instance = null;
+        ActiveNotificationsMirror.reset();
 	}
 
 	@Override
@@ -41,7 +41,8 @@ public class JellybeanNotificationListener extends NotificationListenerService {
 	@Override
 	public void onNotificationPosted(final StatusBarNotification sbn) {
         Timber.d("Got new jellybean notification");
-        NotificationHandler.newNotification(JellybeanNotificationListener.this, NotificationHandler.getKeyFromSbn(sbn), sbn.getNotification(), true);
+        NotificationIngestionQueue.post(JellybeanNotificationListener.this, NotificationHandler.getKeyFromSbn(sbn), sbn.getNotification(), true);
+        ActiveNotificationsMirror.onNotificationPosted(sbn);
 	}
 
 	@Override
@@ -49,8 +50,8 @@ public class JellybeanNotificationListener extends NotificationListenerService {
         NotificationKey key = NotificationHandler.getKeyFromSbn(sbn);
         Timber.d("Got jellybean dismiss " + key);
 
-
-        DismissUpwardsModule.dismissNotification(this, key);
+        NotificationIngestionQueue.cancel(this, key);
+        ActiveNotificationsMirror.onNotificationRemoved(key);
 	}
 
     @TargetApi(value = Build.VERSION_CODES.LOLLIPOP)
@@ -6,7 +6,6 @@ import android.content.ComponentName;
 import android.content.Context;
 import android.content.Intent;
 import android.content.SharedPreferences;
-import android.content.pm.ApplicationInfo;
 import android.content.pm.PackageManager;
 import android.content.pm.PackageManager.NameNotFoundException;
 import android.content.res.Resources;
@@ -26,9 +25,9 @@ import com.matejdro.pebblenotificationcenter.PebbleNotification;
 import com.matejdro.pebblenotificationcenter.PebbleNotificationCenter;
 import com.matejdro.pebblenotificationcenter.appsetting.AppSetting;
 import com.matejdro.pebblenotificationcenter.appsetting.AppSettingStorage;
-import com.matejdro.pebblenotificationcenter.appsetting.SharedPreferencesAppStorage;
 import com.matejdro.pebblenotificationcenter.notifications.actions.ActionParser;
 import com.matejdro.pebblenotificationcenter.pebble.modules.NotificationSendingModule;
+import com.matejdro.pebblenotificationcenter.util.AppColorCache;
 import com.matejdro.pebblenotificationcenter.util.SettingsMemoryStorage;
 import timber.log.Timber;
 
@@ -40,7 +39,7 @@ public class NotificationHandler {
 		Timber.i("Processing notification " + key);
 
 		SettingsMemoryStorage settings = PebbleNotificationCenter.getInMemorySettings();
-        AppSettingStorage settingStorage = new SharedPreferencesAppStorage(context, key.getPackage(), settings.getDefaultSettingsStorage());
+        AppSettingStorage settingStorage = settings.getAppSettingsCache().get(key.getPackage());
 
 		boolean enableOngoing = settingStorage.getBoolean(AppSetting.SEND_ONGOING_NOTIFICATIONS);
 		boolean isOngoing = (notification.flags & Notification.FLAG_ONGOING_EVENT) != 0;
@@ -194,65 +193,80 @@ public class NotificationHandler {
         //Try getting color from app theme (material design primary color)
         if (appPackage != null)
         {
-            PackageManager packageManager = context.getPackageManager();
-            try
-            {
-                Resources otherAppResources = packageManager.getResourcesForApplication(appPackage);
-                Resources.Theme theme = otherAppResources.newTheme();
+            int color = getThemeColor(appPackage, context);
+            if (color != Color.TRANSPARENT)
+                return color;
+        }
 
-                int themeResId = packageManager.getApplicationInfo(appPackage, 0).theme;
-                if (themeResId == 0)
-                {
-                    Intent launchIntent =  packageManager.getLaunchIntentForPackage(appPackage);
-                    themeResId = launchIntent != null ? packageManager.getActivityInfo(launchIntent.getComponent(), 0).theme : 0;
-                }
+        //Try getting color from notification LED color
+        int ledColor = notification.ledARGB;
+        if (ledColor != Notification.COLOR_DEFAULT)
+            return ledColor;
 
-                if (themeResId != 0)
-                {
-                    theme.applyStyle(themeResId, false);
+        return Color.BLACK;
+    }
 
-                    //AppCompat theme color
-                    TypedArray typedArray = theme.obtainStyledAttributes(new int[] {otherAppResources.getIdentifier("colorPrimary", "attr", appPackage)});
-                    int color = typedArray.getColor(0, Color.TRANSPARENT);
-                    typedArray.recycle();
+    /**
+     * @return primary color from app's theme or {@link Color#TRANSPARENT} if app's theme does not specify it. Result is cached per app.
+     */
+    public static int getThemeColor(String appPackage, Context context)
+    {
+        AppColorCache colorCache = PebbleNotificationCenter.getAppColorCache();
+        Integer cachedColor = colorCache.get(appPackage);
+        if (cachedColor != null)
+            return cachedColor;
+
+        int color = loadThemeColor(appPackage, context);
+        colorCache.put(appPackage, color);
+        return color;
+    }
 
-                    if (color == Color.TRANSPARENT && Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP)
-                    {
-                        //Native Lollipop theme color
-                        typedArray = theme.obtainStyledAttributes(new int[] {android.R.attr.colorPrimary});
-                        color = typedArray.getColor(0, Color.TRANSPARENT);
-                        typedArray.recycle();
-                    }
+    private static int loadThemeColor(String appPackage, Context context)
+    {
+        PackageManager packageManager = context.getPackageManager();
+        try
+        {
+            Resources otherAppResources = packageManager.getResourcesForApplication(appPackage);
+            Resources.Theme theme = otherAppResources.newTheme();
 
-                    if (color != Color.TRANSPARENT)
-                        return color;
-                }
+            int themeResId = packageManager.getApplicationInfo(appPackage, 0).theme;
+            if (themeResId == 0)
+            {
+                Intent launchIntent =  packageManager.getLaunchIntentForPackage(appPackage);
+                themeResId = launchIntent != null ? packageManager.getActivityInfo(launchIntent.getComponent(), 0).theme : 0;
             }
-            catch (NameNotFoundException ignored)
+
+            if (themeResId != 0)
             {
+                theme.applyStyle(themeResId, false);
+
+                //AppCompat theme color
+                TypedArray typedArray = theme.obtainStyledAttributes(new int[] {otherAppResources.getIdentifier("colorPrimary", "attr", appPackage)});
+                int color = typedArray.getColor(0, Color.TRANSPARENT);
+                typedArray.recycle();
+
+                if (color == Color.TRANSPARENT && Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP)
+                {
+                    //Native Lollipop theme color
+                    typedArray = theme.obtainStyledAttributes(new int[] {android.R.attr.colorPrimary});
+                    color = typedArray.getColor(0, Color.TRANSPARENT);
+                    typedArray.recycle();
+                }
+
+                return color;
             }
         }
+        catch (NameNotFoundException ignored)
+        {
+        }
 
-        //Try getting color from notification LED color
-        int ledColor = notification.ledARGB;
-        if (ledColor != Notification.COLOR_DEFAULT)
-            return ledColor;
-
-        return Color.BLACK;
+        return Color.TRANSPARENT;
     }
 
 	public static String getAppName(Context context, String packageName)
 	{
-		final PackageManager pm = context.getPackageManager();
-		ApplicationInfo ai;
-		try {
-			ai = pm.getApplicationInfo( packageName, 0);
-		} catch (final NameNotFoundException e) {
-			ai = null;
-		}
-		final String applicationName = (String) (ai != null ? pm.getApplicationLabel(ai) : "Notification");
-		return applicationName;
-
+		String applicationName = PebbleNotificationCenter.getAppLabelCache().get(context, packageName);
+		return applicationName != null ? applicationName : "Notification";
 	}
 
 	public static boolean isNotificationListenerSupported()
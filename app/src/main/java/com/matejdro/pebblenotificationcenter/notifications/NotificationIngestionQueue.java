@@ -0,0 +1,237 @@
+package com.matejdro.pebblenotificationcenter.notifications;
+
+import android.app.Notification;
+import android.content.Context;
+import android.os.Process;
+import com.matejdro.pebblenotificationcenter.NotificationKey;
+import com.matejdro.pebblenotificationcenter.PebbleNotificationCenter;
+import com.matejdro.pebblenotificationcenter.appsetting.AppSetting;
+import com.matejdro.pebblenotificationcenter.appsetting.AppSettingsSnapshot;
+import com.matejdro.pebblenotificationcenter.pebble.modules.DismissUpwardsModule;
+import java.util.Iterator;
+import java.util.LinkedList;
+import timber.log.Timber;
+
+/**
+ * Hands posted notifications from notification listeners over to a dedicated worker thread, so listener callbacks
+ * return immediately and heavy parsing in {@link NotificationHandler#newNotification(Context, NotificationKey, Notification, boolean)}
+ * does not block the system.
+ *
+ * Removals go through the same queue, so notification that is dismissed while the worker is still processing it
+ * is dismissed on the watch only after it was sent there.
+ *
+ * Queue is bounded. Newer post of the notification that is still waiting replaces the older one. When queue is full,
+ * {@link AppSetting#INGESTION_DROP_POLICY} of the incoming notification's app decides which notification is dropped.
+ */
+public class NotificationIngestionQueue
+{
+    public static final int CAPACITY = 64;
+
+    public static final int DROP_OLDEST = 0;
+    public static final int DROP_NEWEST = 1;
+
+    private static final LinkedList<PendingNotification> queue = new LinkedList<PendingNotification>();
+    private static Thread worker;
+
+    public static void post(Context context, NotificationKey key, Notification notification, boolean isDismissible)
+    {
+        PendingNotification pending = new PendingNotification();
+        pending.context = context.getApplicationContext();
+        pending.key = key;
+        pending.notification = notification;
+        pending.isDismissible = isDismissible;
+
+        synchronized (queue)
+        {
+            if (replaceQueued(pending))
+                return;
+
+            if (queue.size() >= CAPACITY)
+            {
+                int dropPolicy = getDropPolicy(key.getPackage());
+                if (dropPolicy == DROP_NEWEST || !removeOldestPost())
+                {
+                    Timber.w("Ingestion queue full, dropping " + key);
+                    return;
+                }
+            }
+
+            enqueue(pending);
+        }
+    }
+
+    /**
+     * Removes notification from the queue, so notification that was dismissed before it was processed is not sent anymore,
+     * and dismisses it upwards after any post of it that is already being processed.
+     */
+    public static void cancel(Context context, NotificationKey key)
+    {
+        PendingNotification removal = new PendingNotification();
+        removal.context = context.getApplicationContext();
+        removal.key = key;
+        removal.removal = true;
+
+        synchronized (queue)
+        {
+            Iterator<PendingNotification> iterator = queue.iterator();
+            while (iterator.hasNext())
+            {
+                PendingNotification queued = iterator.next();
+                if (!queued.removal && isSameNotification(queued.key, key))
+                    iterator.remove();
+            }
+
+            enqueue(removal);
+        }
+    }
+
+    public static void cancelPackage(Context context, String pkg)
+    {
+        PendingNotification removal = new PendingNotification();
+        removal.context = context.getApplicationContext();
+        removal.removedPackage = pkg;
+        removal.removal = true;
+
+        synchronized (queue)
+        {
+            Iterator<PendingNotification> iterator = queue.iterator();
+            while (iterator.hasNext())
+            {
+                PendingNotification queued = iterator.next();
+                if (!queued.removal && pkg.equals(queued.key.getPackage()))
+                    iterator.remove();
+            }
+
+            enqueue(removal);
+        }
+    }
+
+    /**
+     * Called on listener's binder thread, so it only uses settings that are already in memory.
+     * Apps that were not loaded yet get default policy instead of loading their preferences here.
+     */
+    private static int getDropPolicy(String pkg)
+    {
+        AppSettingsSnapshot settings = pkg == null ? null : PebbleNotificationCenter.getInMemorySettings().getAppSettingsCache().getIfCached(pkg);
+        if (settings == null)
+            return (Integer) AppSetting.INGESTION_DROP_POLICY.getDefault();
+
+        return settings.getInt(AppSetting.INGESTION_DROP_POLICY);
+    }
+
+    private static void enqueue(PendingNotification pending)
+    {
+        queue.addLast(pending);
+        ensureWorkerRunning();
+        queue.notify();
+    }
+
+    /**
+     * Removals are never dropped, otherwise dismissed notification could stay on the watch.
+     *
+     * @return <code>false</code> if queue only contains removals
+     */
+    private static boolean removeOldestPost()
+    {
+        Iterator<PendingNotification> iterator = queue.iterator();
+        while (iterator.hasNext())
+        {
+            PendingNotification queued = iterator.next();
+            if (!queued.removal)
+            {
+                Timber.w("Ingestion queue full, dropping " + queued.key);
+                iterator.remove();
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean replaceQueued(PendingNotification pending)
+    {
+        for (PendingNotification queued : queue)
+        {
+            if (!queued.removal && isSameNotification(queued.key, pending.key))
+            {
+                queued.notification = pending.notification;
+                queued.isDismissible = pending.isDismissible;
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean isSameNotification(NotificationKey a, NotificationKey b)
+    {
+        //Notifications without ID (from accessibility service) cannot be updated, so they never replace each other
+        if (a.getAndroidId() == null || b.getAndroidId() == null)
+            return false;
+
+        return a.equals(b);
+    }
+
+    private static void ensureWorkerRunning()
+    {
+        if (worker != null)
+            return;
+
+        worker = new Thread("NotificationIngestion")
+        {
+            @Override
+            public void run()
+            {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+
+                while (true)
+                {
+                    PendingNotification pending;
+                    synchronized (queue)
+                    {
+                        while (queue.isEmpty())
+                        {
+                            try
+                            {
+                                queue.wait();
+                            }
+                            catch (InterruptedException ignored)
+                            {
+                            }
+                        }
+
+                        pending = queue.removeFirst();
+                    }
+
+                    try
+                    {
+                        if (!pending.removal)
+                            NotificationHandler.newNotification(pending.context, pending.key, pending.notification, pending.isDismissible);
+                        else if (pending.removedPackage != null)
+                            DismissUpwardsModule.dismissWholePackage(pending.context, pending.removedPackage);
+                        else
+                            DismissUpwardsModule.dismissNotification(pending.context, pending.key);
+                    }
+                    catch (RuntimeException e)
+                    {
+                        Timber.e(e, "Processing notification " + pending.key + " failed");
+                    }
+                }
+            }
+        };
+
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    private static class PendingNotification
+    {
+        Context context;
+        NotificationKey key;
+        Notification notification;
+        boolean isDismissible;
+
+        boolean removal;
+        String removedPackage;
+    }
+}
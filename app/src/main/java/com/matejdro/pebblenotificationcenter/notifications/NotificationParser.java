@@ -9,13 +9,12 @@ import android.os.Bundle;
 import android.text.SpannableString;
 import android.text.style.StyleSpan;
 import android.widget.RemoteViews;
-import com.crashlytics.android.Crashlytics;
 import com.matejdro.pebblenotificationcenter.PebbleNotification;
 import com.matejdro.pebblenotificationcenter.PebbleNotificationCenter;
 import com.matejdro.pebblenotificationcenter.appsetting.AppSetting;
 import com.matejdro.pebblenotificationcenter.appsetting.AppSettingStorage;
-import com.matejdro.pebblenotificationcenter.appsetting.SharedPreferencesAppStorage;
-import java.lang.reflect.Field;
+import com.matejdro.pebblenotificationcenter.pebble.modules.NotificationSendingModule;
+import com.matejdro.pebblenotificationcenter.util.ReflectionCache;
 import java.util.ArrayList;
 
 import timber.log.Timber;
@@ -24,26 +23,79 @@ public class NotificationParser {
 	public String title;
 	public String text;
 
+	private int textLimit;
+
 	public NotificationParser(Context context, PebbleNotification pebbleNotification, Notification notification)
 	{
 		this.title = null;
 		this.text = "";
 
         String pkg = pebbleNotification.getKey().getPackage();
+		textLimit = NotificationSendingModule.getMaximumTextLength(pebbleNotification.getSettingStorage(context));
+
+		boolean nativeParsingAllowed = Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN && !pebbleNotification.getSettingStorage(context).getBoolean(AppSetting.ALWAYS_PARSE_STATUSBAR_NOTIFICATION);
+
+		//Strategy is only remembered when both strategies are possible
+		String strategyKey = null;
+		int rememberedStrategy = ParseStrategyCache.STRATEGY_UNKNOWN;
+		if (nativeParsingAllowed && pkg != null)
+		{
+			strategyKey = ParseStrategyCache.getKey(pkg, notification);
+			rememberedStrategy = ParseStrategyCache.get(strategyKey);
+		}
+
+		if (rememberedStrategy == ParseStrategyCache.STRATEGY_NATIVE)
+		{
+			if (tryParseNatively(context, pkg, notification) && hasContent())
+				return;
+
+			reset();
+			ParseStrategyCache.forget(strategyKey);
+		}
+		else if (rememberedStrategy == ParseStrategyCache.STRATEGY_REMOTE_VIEWS)
+		{
+			parseRemoteViews(notification);
+			if (hasContent())
+				return;
+
+			reset();
+			ParseStrategyCache.forget(strategyKey);
+		}
 
-		if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN && !pebbleNotification.getSettingStorage(context).getBoolean(AppSetting.ALWAYS_PARSE_STATUSBAR_NOTIFICATION))
+		if (nativeParsingAllowed)
 		{
 			if (tryParseNatively(context, pkg, notification))
 			{
+				if (strategyKey != null && hasContent())
+					ParseStrategyCache.remember(strategyKey, ParseStrategyCache.STRATEGY_NATIVE);
+
 				return;
 			}
 		}
-				
+
+		parseRemoteViews(notification);
+		if (strategyKey != null && hasContent())
+			ParseStrategyCache.remember(strategyKey, ParseStrategyCache.STRATEGY_REMOTE_VIEWS);
+	}
+
+	private void parseRemoteViews(Notification notification)
+	{
 		if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN)
 			getExtraBigData(notification);
 		else
 			getExtraData(notification);
 	}
+
+	private boolean hasContent()
+	{
+		return (title != null && !title.trim().isEmpty()) || !text.trim().isEmpty();
+	}
+
+	private void reset()
+	{
+		title = null;
+		text = "";
+	}
 	
 	@TargetApi(value = Build.VERSION_CODES.JELLY_BEAN)
 	public boolean tryParseNatively(Context context, String pkg, Notification notification)
@@ -76,11 +128,15 @@ public class NotificationParser {
 
         if (extras.get(Notification.EXTRA_TEXT_LINES) != null)
         {
+            TextAssembler assembler = new TextAssembler(textLimit);
             for (CharSequence line : extras.getCharSequenceArray(Notification.EXTRA_TEXT_LINES))
             {
-                text += formatCharSequence(line) + "\n\n";
+                if (assembler.isFull())
+                    break;
+
+                assembler.appendRaw(formatCharSequence(line) + "\n\n");
             }
-            text = text.trim();
+            text = assembler.build();
         }
         else if (extras.get(Notification.EXTRA_BIG_TEXT) != null)
         {
@@ -104,7 +160,7 @@ public class NotificationParser {
     @TargetApi(value = Build.VERSION_CODES.JELLY_BEAN)
     public boolean parseInboxNotification(Context context, String pkg, Bundle extras)
     {
-        AppSettingStorage settingStorage = new SharedPreferencesAppStorage(context, pkg, PebbleNotificationCenter.getInMemorySettings().getDefaultSettingsStorage());
+        AppSettingStorage settingStorage = PebbleNotificationCenter.getInMemorySettings().getAppSettingsCache().get(pkg);
         if (!settingStorage.getBoolean(AppSetting.USE_ALTERNATE_INBOX_PARSER))
             return false;
 
@@ -123,12 +179,13 @@ public class NotificationParser {
         boolean stopFirst = settingStorage.getBoolean(AppSetting.DISPLAY_ONLY_NEWEST);
         boolean reverse = settingStorage.getBoolean(AppSetting.INBOX_REVERSE);
 
+        TextAssembler assembler = new TextAssembler(textLimit);
         int i = reverse ? lines.length - 1 : 0;
         while (true)
         {
-            text += formatCharSequence(lines[i]) + "\n\n";
+            assembler.appendRaw(formatCharSequence(lines[i]) + "\n\n");
 
-            if (stopFirst)
+            if (stopFirst || assembler.isFull())
                 break;
 
             if (reverse)
@@ -145,7 +202,7 @@ public class NotificationParser {
             }
         }
 
-        text = text.trim();
+        text = assembler.build();
 
         return true;
     }
@@ -243,46 +300,41 @@ public class NotificationParser {
 
 	private void parseRemoteView(RemoteViews views)
 	{
-		try {
-			Class remoteViewsClass = RemoteViews.class;
-			Class baseActionClass = Class.forName("android.widget.RemoteViews$Action");
-
+		TextAssembler assembler = new TextAssembler(textLimit);
 
-			Field actionsField = remoteViewsClass.getDeclaredField("mActions");
+		try {
+			Class baseActionClass = ReflectionCache.getClass("android.widget.RemoteViews$Action");
 
-			actionsField.setAccessible(true);
+			ArrayList<Object> actions = (ArrayList<Object>) ReflectionCache.getObject(views, RemoteViews.class, "mActions");
+			if (actions == null)
+				return;
 
-			ArrayList<Object> actions = (ArrayList<Object>) actionsField.get(views);
 			for (Object action : actions) {
+				//Title may still appear after the text is full
+				if (assembler.isFull() && title != null)
+					break;
+
                 if (!action.getClass().getName().contains("$ReflectionAction"))
 					continue;
 
-				Field typeField = action.getClass().getDeclaredField("type");
-				typeField.setAccessible(true);
-				int type = typeField.getInt(action);
+				int type = ReflectionCache.getInt(action, action.getClass(), "type", -1);
                 if (type != 9 && type != 10)
 					continue;
 
 
 				int viewId = -1;
-				try
-				{
-					Field idField = baseActionClass.getDeclaredField("viewId");
-					idField.setAccessible(true);
-					viewId = idField.getInt(action);
-				}
-				catch (NoSuchFieldException e)
-				{
-				}
+				if (baseActionClass != null)
+					viewId = ReflectionCache.getInt(action, baseActionClass, "viewId", -1);
 
-				Field valueField = action.getClass().getDeclaredField("value");
-				valueField.setAccessible(true);
-				CharSequence value = (CharSequence) valueField.get(action);
+				CharSequence value = (CharSequence) ReflectionCache.getObject(action, "value");
 				
-				if (value == null ||
-                    value.equals("...") ||
-                    isInteger(value.toString()) ||
-                    text.contains(value))
+				if (value == null)
+					continue;
+
+				String valueString = value.toString();
+				if (valueString.equals("...") ||
+                    isInteger(valueString) ||
+                    assembler.contains(valueString))
                 {
 					continue;
 				}
@@ -290,15 +342,18 @@ public class NotificationParser {
 				if (viewId == android.R.id.title)
 				{
 					if (title == null || title.length() < value.length())
-						title = value.toString().trim();
+						title = valueString.trim();
 				}
 				else
-					text += formatCharSequence(value) + "\n\n";
+					assembler.append(valueString, formatCharSequence(value));
 
 			}
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
+
+		if (!assembler.isEmpty())
+			text = assembler.build();
 	}
 
     /**
@@ -306,22 +361,14 @@ public class NotificationParser {
      * Jellybean notifications, but the field was private until KitKat.
      */
     public static Bundle getExtras(Notification notif) {
-        try {
-            Field extrasField = Notification.class.getDeclaredField("extras");
-            extrasField.setAccessible(true);
+        if (ReflectionCache.getField(Notification.class, "extras") == null)
+            return null;
 
-            Bundle extras = (Bundle) extrasField.get(notif);
-            if (extras == null) {
-                extras = new Bundle();
-            }
-            return extras;
-        } catch (IllegalAccessException e) {
-            Crashlytics.logException(e);
-        } catch (NoSuchFieldException e) {
-            Crashlytics.logException(e);
+        Bundle extras = (Bundle) ReflectionCache.getObject(notif, Notification.class, "extras");
+        if (extras == null) {
+            extras = new Bundle();
         }
-
-        return null;
+        return extras;
     }
 
 	public static boolean isInteger(String input) {
@@ -0,0 +1,77 @@
+package com.matejdro.pebblenotificationcenter.notifications;
+
+import android.app.Notification;
+import android.os.Bundle;
+import android.os.SystemClock;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers which parsing strategy of {@link NotificationParser} produced text for notifications of specific app and notification style,
+ * so the same strategy can be tried first next time.
+ *
+ * Remembered strategy is forgotten after it was used {@link #REVALIDATE_AFTER_USES} times or after {@link #REVALIDATE_AFTER_MILLIS},
+ * so changes in app's notifications (for example after app update) are eventually picked up.
+ */
+public class ParseStrategyCache
+{
+    public static final int STRATEGY_UNKNOWN = -1;
+    public static final int STRATEGY_NATIVE = 0;
+    public static final int STRATEGY_REMOTE_VIEWS = 1;
+
+    public static final int REVALIDATE_AFTER_USES = 50;
+    public static final long REVALIDATE_AFTER_MILLIS = 60 * 60 * 1000;
+
+    //android.app.Notification.EXTRA_TEMPLATE, which is only available on KitKat and newer
+    private static final String EXTRA_TEMPLATE = "android.template";
+
+    private static final ConcurrentHashMap<String, Entry> strategies = new ConcurrentHashMap<String, Entry>();
+
+    public static String getKey(String pkg, Notification notification)
+    {
+        String template = null;
+        Bundle extras = NotificationParser.getExtras(notification);
+        if (extras != null)
+            template = extras.getString(EXTRA_TEMPLATE);
+
+        return pkg + "|" + template;
+    }
+
+    /**
+     * @return remembered strategy or {@link #STRATEGY_UNKNOWN} if strategy is not known or it needs to be re-validated.
+     */
+    public static int get(String key)
+    {
+        Entry entry = strategies.get(key);
+        if (entry == null)
+            return STRATEGY_UNKNOWN;
+
+        entry.uses++;
+        if (entry.uses > REVALIDATE_AFTER_USES || SystemClock.elapsedRealtime() - entry.learnedAt > REVALIDATE_AFTER_MILLIS)
+        {
+            strategies.remove(key);
+            return STRATEGY_UNKNOWN;
+        }
+
+        return entry.strategy;
+    }
+
+    public static void remember(String key, int strategy)
+    {
+        Entry entry = new Entry();
+        entry.strategy = strategy;
+        entry.learnedAt = SystemClock.elapsedRealtime();
+        strategies.put(key, entry);
+    }
+
+    public static void forget(String key)
+    {
+        strategies.remove(key);
+    }
+
+    private static class Entry
+    {
+        int strategy;
+        int uses;
+        long learnedAt;
+    }
+}
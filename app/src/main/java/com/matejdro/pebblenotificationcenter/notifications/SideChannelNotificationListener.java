@@ -4,7 +4,6 @@ import android.app.Notification;
 import android.content.Intent;
 import android.support.v4.app.NotificationCompatSideChannelService;
 import com.matejdro.pebblenotificationcenter.NotificationKey;
-import com.matejdro.pebblenotificationcenter.pebble.modules.DismissUpwardsModule;
 import timber.log.Timber;
 
 /**
@@ -16,7 +15,7 @@ public class SideChannelNotificationListener extends NotificationCompatSideChann
     public void notify(String packageName, int id, String tag, Notification notification)
     {
         Timber.d("Got new side channel notification");
-        NotificationHandler.newNotification(this, new NotificationKey(packageName, id, tag), notification,  true);
+        NotificationIngestionQueue.post(this, new NotificationKey(packageName, id, tag), notification,  true);
     }
 
     @Override
@@ -25,12 +24,12 @@ public class SideChannelNotificationListener extends NotificationCompatSideChann
         NotificationKey key = new NotificationKey(packageName, id, tag);
         Timber.d("Dismiss side channel " + key);
 
-        DismissUpwardsModule.dismissNotification(this, key);
+        NotificationIngestionQueue.cancel(this, key);
     }
 
     @Override
     public void cancelAll(String packageName)
     {
-        DismissUpwardsModule.dismissWholePackage(this, packageName);
+        NotificationIngestionQueue.cancelPackage(this, packageName);
     }
 }
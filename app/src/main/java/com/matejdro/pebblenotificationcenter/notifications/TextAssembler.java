@@ -0,0 +1,81 @@
+package com.matejdro.pebblenotificationcenter.notifications;
+
+import java.util.HashSet;
+
+/**
+ * Builds notification text from segments (lines, RemoteViews texts etc.) in linear time.
+ * Duplicate segments are skipped and once text reaches the length limit, further segments are ignored.
+ */
+public class TextAssembler
+{
+    private static final String SEGMENT_SEPARATOR = "\n\n";
+
+    private final StringBuilder builder;
+    private final HashSet<String> segments = new HashSet<String>();
+    private final int limit;
+
+    public TextAssembler(int limit)
+    {
+        this.limit = limit;
+        builder = new StringBuilder(Math.min(limit, 256));
+    }
+
+    /**
+     * @return <code>true</code> if text is already long enough, so there is no point in adding more segments.
+     */
+    public boolean isFull()
+    {
+        return builder.length() >= limit;
+    }
+
+    public boolean contains(String segment)
+    {
+        return segments.contains(segment);
+    }
+
+    /**
+     * Appends segment, followed by empty line.
+     *
+     * @return <code>false</code> if segment was not added because it is a duplicate or because text is already full
+     */
+    public boolean append(String segment)
+    {
+        return append(segment, segment);
+    }
+
+    /**
+     * Appends segment, followed by empty line. Duplicates are detected by <code>key</code> instead of the segment itself
+     * (for example by original value when appended segment is formatted).
+     *
+     * @return <code>false</code> if segment was not added because it is a duplicate or because text is already full
+     */
+    public boolean append(String key, String segment)
+    {
+        if (isFull() || !segments.add(key))
+            return false;
+
+        builder.append(segment).append(SEGMENT_SEPARATOR);
+        return true;
+    }
+
+    /**
+     * Appends text without separator and without checking for duplicates.
+     */
+    public void appendRaw(String text)
+    {
+        if (isFull())
+            return;
+
+        builder.append(text);
+    }
+
+    public boolean isEmpty()
+    {
+        return builder.length() == 0;
+    }
+
+    public String build()
+    {
+        return builder.toString().trim();
+    }
+}
@@ -9,7 +9,6 @@ import android.os.Build;
 import android.os.Bundle;
 import android.os.ParcelFormatException;
 import android.os.Parcelable;
-import com.crashlytics.android.Crashlytics;
 import com.matejdro.pebblenotificationcenter.NotificationKey;
 import com.matejdro.pebblenotificationcenter.PebbleNotification;
 import com.matejdro.pebblenotificationcenter.R;
@@ -18,6 +17,7 @@ import com.matejdro.pebblenotificationcenter.appsetting.AppSettingStorage;
 import com.matejdro.pebblenotificationcenter.notifications.NotificationHandler;
 import com.matejdro.pebblenotificationcenter.notifications.NotificationParser;
 import com.matejdro.pebblenotificationcenter.pebble.modules.NotificationSendingModule;
+import com.matejdro.pebblenotificationcenter.util.ReflectionCache;
 import com.matejdro.pebblecommons.util.TextUtil;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
@@ -146,21 +146,14 @@ public class ActionParser
             return;
 
         //Accessing through reflection is required for 4.2 devices
-        Field titleMethod;
-        Field intentMethod;
-
-        try
-        {
-            Class actionClass = Class.forName("android.app.Notification$Action");
-            titleMethod = actionClass.getDeclaredField("title");
-            intentMethod = actionClass.getDeclaredField("actionIntent");
-        } catch (ClassNotFoundException e) {
-            Crashlytics.logException(e);
+        Class actionClass = ReflectionCache.getClass("android.app.Notification$Action");
+        if (actionClass == null)
             return;
-        } catch (NoSuchFieldException e) {
-            Crashlytics.logException(e);
+
+        Field titleMethod = ReflectionCache.getField(actionClass, "title");
+        Field intentMethod = ReflectionCache.getField(actionClass, "actionIntent");
+        if (titleMethod == null || intentMethod == null)
             return;
-        }
 
 
         for (Object action : actions)
@@ -189,21 +182,6 @@ public class ActionParser
      * Jellybean notifications, but the field was private until KitKat.
      */
     public static Object[] getActionsField(Notification notif) {
-
-        try {
-            Field actionsField = Class.forName("android.app.Notification").getDeclaredField("actions");
-            actionsField.setAccessible(true);
-
-            Object[] actions = (Object[]) actionsField.get(notif);
-            return actions;
-        } catch (IllegalAccessException e) {
-            Crashlytics.logException(e);
-        } catch (NoSuchFieldException e) {
-            Crashlytics.logException(e);
-        } catch (ClassNotFoundException e) {
-            Crashlytics.logException(e);
-        }
-
-        return null;
+        return (Object[]) ReflectionCache.getObject(notif, Notification.class, "actions");
     }
 }
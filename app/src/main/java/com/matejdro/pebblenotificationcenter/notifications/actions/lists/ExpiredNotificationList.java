@@ -0,0 +1,44 @@
+package com.matejdro.pebblenotificationcenter.notifications.actions.lists;
+
+import android.content.Context;
+import com.matejdro.pebblenotificationcenter.NCTalkerService;
+import com.matejdro.pebblenotificationcenter.R;
+import com.matejdro.pebblenotificationcenter.pebble.modules.DismissUpwardsModule;
+
+/**
+ * List that is displayed instead of notification actions when notification was already evicted from phone's memory.
+ */
+public class ExpiredNotificationList extends ActionList
+{
+    private int notificationId;
+    private String[] items;
+
+    public ExpiredNotificationList(Context context, int notificationId)
+    {
+        this.notificationId = notificationId;
+
+        items = new String[] { context.getString(R.string.notificationExpired), context.getString(R.string.dismissOnPebble) };
+    }
+
+    @Override
+    public int getNumberOfItems()
+    {
+        return items.length;
+    }
+
+    @Override
+    public String getItem(int id)
+    {
+        return items[id];
+    }
+
+    @Override
+    public boolean itemPicked(NCTalkerService service, int id)
+    {
+        if (id != 1)
+            return false;
+
+        DismissUpwardsModule.dismissPebbleID(service, notificationId);
+        return true;
+    }
+}
@@ -53,6 +53,8 @@ public class NativeNotificationActionHandler
         if (notification == null)
             return;
 
+        service.sentNotifications.touch(notificationId);
+
         if (notification.source.getActions().size() <= actionId)
             return;
 
@@ -0,0 +1,161 @@
+package com.matejdro.pebblenotificationcenter.pebble;
+
+import android.os.Handler;
+import android.os.SystemClock;
+import com.matejdro.pebblenotificationcenter.NotificationKey;
+import com.matejdro.pebblenotificationcenter.PebbleNotification;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import timber.log.Timber;
+
+/**
+ * Limits how often updates of the same notification (notifications with same {@link NotificationKey}) are processed.
+ *
+ * First post of the notification is processed immediately. Further posts that arrive within the debounce window
+ * are held back and only the newest of them is processed when the window passes, so apps that update their notification many times per second
+ * (music players, download managers) do not flood the watch with stale updates.
+ */
+public class NotificationDebouncer
+{
+    private Handler handler;
+    private NotificationProcessor processor;
+    private HashMap<String, Slot> slots = new HashMap<String, Slot>();
+
+    public NotificationDebouncer(NotificationProcessor processor)
+    {
+        this.processor = processor;
+        this.handler = new Handler();
+    }
+
+    /**
+     * @param window debounce window in milliseconds. Notification is processed immediately if it is 0 or less.
+     */
+    public void submit(PebbleNotification notification, long window)
+    {
+        String key = getKeyIndex(notification.getKey());
+        if (window <= 0 || key == null)
+        {
+            processor.processNotification(notification);
+            return;
+        }
+
+        Slot slot = slots.get(key);
+        if (slot == null)
+        {
+            slot = new Slot(key);
+            slots.put(key, slot);
+        }
+
+        slot.window = window;
+
+        long now = SystemClock.uptimeMillis();
+        if (slot.pending == null && now - slot.lastProcessed >= window)
+        {
+            slot.lastProcessed = now;
+            processor.processNotification(notification);
+
+            //Forget about this notification if it is not updated within the window
+            handler.removeCallbacks(slot);
+            handler.postAtTime(slot, now + window);
+            return;
+        }
+
+        if (slot.pending != null)
+            Timber.d("Notification update " + key + " superseded by newer one");
+
+        slot.pending = notification;
+        handler.removeCallbacks(slot);
+        handler.postAtTime(slot, slot.lastProcessed + window);
+    }
+
+    /**
+     * Drops held back update of the notification, so it is not processed after notification was dismissed.
+     */
+    public void cancel(NotificationKey key)
+    {
+        String index = getKeyIndex(key);
+        if (index == null)
+            return;
+
+        Slot slot = slots.remove(index);
+        if (slot != null)
+            handler.removeCallbacks(slot);
+    }
+
+    /**
+     * Drops held back updates of all notifications from specified package.
+     */
+    public void cancelPackage(String pkg)
+    {
+        if (pkg == null)
+            return;
+
+        String prefix = pkg + "|";
+        Iterator<Map.Entry<String, Slot>> iterator = slots.entrySet().iterator();
+        while (iterator.hasNext())
+        {
+            Map.Entry<String, Slot> entry = iterator.next();
+            if (entry.getKey().startsWith(prefix))
+            {
+                handler.removeCallbacks(entry.getValue());
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Removes all notifications that are waiting for their window to pass, without processing them.
+     */
+    public void clear()
+    {
+        for (Slot slot : slots.values())
+            handler.removeCallbacks(slot);
+
+        slots.clear();
+    }
+
+    private static String getKeyIndex(NotificationKey key)
+    {
+        //Notifications without package or ID cannot be updated, so there is nothing to debounce
+        if (key == null || key.getPackage() == null || key.getAndroidId() == null)
+            return null;
+
+        return key.getPackage() + "|" + key.getAndroidId() + "|" + key.getTag();
+    }
+
+    private class Slot implements Runnable
+    {
+        private final String key;
+        private PebbleNotification pending;
+        private long lastProcessed;
+        private long window;
+
+        private Slot(String key)
+        {
+            this.key = key;
+        }
+
+        @Override
+        public void run()
+        {
+            if (pending == null)
+            {
+                slots.remove(key);
+                return;
+            }
+
+            PebbleNotification notification = pending;
+            pending = null;
+            lastProcessed = SystemClock.uptimeMillis();
+            handler.postAtTime(this, lastProcessed + window);
+
+            processor.processNotification(notification);
+        }
+    }
+
+    public interface NotificationProcessor
+    {
+        void processNotification(PebbleNotification notification);
+    }
+}
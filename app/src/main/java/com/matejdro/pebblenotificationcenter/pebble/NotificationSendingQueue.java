@@ -0,0 +1,149 @@
+package com.matejdro.pebblenotificationcenter.pebble;
+
+import android.support.annotation.Nullable;
+import com.matejdro.pebblenotificationcenter.NotificationKey;
+import com.matejdro.pebblenotificationcenter.ProcessedNotification;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Queue of notifications that wait to be sent to the watch. Notifications with higher priority are sent first.
+ *
+ * To prevent starvation of low priority apps, priority of waiting notification is raised by one for every
+ * {@link #AGING_INTERVAL} milliseconds it spends in the queue. Notifications with same effective priority are sent in order of arrival.
+ */
+public class NotificationSendingQueue implements Iterable<ProcessedNotification>
+{
+    public static final int PRIORITY_LOW = 0;
+    public static final int PRIORITY_NORMAL = 1;
+    public static final int PRIORITY_HIGH = 2;
+
+    public static final long AGING_INTERVAL = 30 * 1000;
+
+    private List<Entry> entries = new ArrayList<Entry>();
+
+    /**
+     * Adds notification to the queue. Older queued versions of the same notification (with same {@link NotificationKey}) are removed,
+     * so only the newest one is sent. Replacement takes over place of the notification it replaced.
+     *
+     * @return notifications that were replaced by this one.
+     */
+    public List<ProcessedNotification> add(ProcessedNotification notification, int priority)
+    {
+        long enqueueTime = System.currentTimeMillis();
+        List<ProcessedNotification> replaced = new ArrayList<ProcessedNotification>(1);
+
+        NotificationKey key = notification.source.getKey();
+        if (canCoalesce(key))
+        {
+            Iterator<Entry> iterator = entries.iterator();
+            while (iterator.hasNext())
+            {
+                Entry entry = iterator.next();
+                if (entry.notification.source.isSameNotification(key))
+                {
+                    iterator.remove();
+                    replaced.add(entry.notification);
+                    enqueueTime = Math.min(enqueueTime, entry.enqueueTime);
+                }
+            }
+        }
+
+        Entry entry = new Entry();
+        entry.notification = notification;
+        entry.priority = priority;
+        entry.enqueueTime = enqueueTime;
+        entries.add(entry);
+
+        return replaced;
+    }
+
+    /**
+     * @return notification with highest effective priority or <code>null</code> if queue is empty.
+     */
+    public @Nullable ProcessedNotification poll()
+    {
+        if (entries.isEmpty())
+            return null;
+
+        long now = System.currentTimeMillis();
+
+        int bestIndex = 0;
+        long bestPriority = entries.get(0).getEffectivePriority(now);
+        for (int i = 1; i < entries.size(); i++)
+        {
+            long priority = entries.get(i).getEffectivePriority(now);
+            if (priority > bestPriority || (priority == bestPriority && entries.get(i).enqueueTime < entries.get(bestIndex).enqueueTime))
+            {
+                bestIndex = i;
+                bestPriority = priority;
+            }
+        }
+
+        return entries.remove(bestIndex).notification;
+    }
+
+    public void remove(int id)
+    {
+        Iterator<Entry> iterator = entries.iterator();
+        while (iterator.hasNext())
+        {
+            if (iterator.next().notification.id == id)
+                iterator.remove();
+        }
+    }
+
+    public boolean isEmpty()
+    {
+        return entries.isEmpty();
+    }
+
+    public int size()
+    {
+        return entries.size();
+    }
+
+    @Override
+    public Iterator<ProcessedNotification> iterator()
+    {
+        final Iterator<Entry> entryIterator = entries.iterator();
+        return new Iterator<ProcessedNotification>()
+        {
+            @Override
+            public boolean hasNext()
+            {
+                return entryIterator.hasNext();
+            }
+
+            @Override
+            public ProcessedNotification next()
+            {
+                return entryIterator.next().notification;
+            }
+
+            @Override
+            public void remove()
+            {
+                entryIterator.remove();
+            }
+        };
+    }
+
+    private static boolean canCoalesce(NotificationKey key)
+    {
+        return key != null && key.getPackage() != null && key.getAndroidId() != null;
+    }
+
+    private static class Entry
+    {
+        ProcessedNotification notification;
+        int priority;
+        long enqueueTime;
+
+        long getEffectivePriority(long now)
+        {
+            return priority + (now - enqueueTime) / AGING_INTERVAL;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.matejdro.pebblenotificationcenter.pebble;
+
+import com.matejdro.pebblenotificationcenter.util.TextChunker;
+
+/**
+ * Decides how notification text is split into "more text" packets, so every packet is filled as close as possible
+ * to the size of AppMessage inbox that watchapp reported.
+ */
+public class TextChunkPlanner
+{
+    /**
+     * Chunk size used for watchapps that do not report their inbox size. Those watchapps expect fixed amount of characters per packet.
+     */
+    public static final int LEGACY_CHUNK_CHARACTERS = 100;
+
+    //Serialized PebbleDictionary has one byte for number of tuples and each tuple has key (4 bytes), type (1 byte) and length (2 bytes)
+    private static final int DICTIONARY_HEADER_SIZE = 1;
+    private static final int TUPLE_HEADER_SIZE = 7;
+
+    //More text packet: module (uint8), packet id (uint8), notification id (int32), text (cstring) and sequence id (uint16)
+    private static final int MORE_TEXT_PACKET_OVERHEAD = DICTIONARY_HEADER_SIZE +
+            TUPLE_HEADER_SIZE + 1 +
+            TUPLE_HEADER_SIZE + 1 +
+            TUPLE_HEADER_SIZE + 4 +
+            TUPLE_HEADER_SIZE + 1 + //Null terminator of the text
+            TUPLE_HEADER_SIZE + 2;
+
+    /**
+     * @return maximum amount of text bytes that fit into one more text packet
+     */
+    public static int getMaximumChunkBytes(int inboxSize)
+    {
+        return inboxSize - MORE_TEXT_PACKET_OVERHEAD;
+    }
+
+    /**
+     * @param text UTF-8 encoded notification text
+     * @param inboxSize size of the watchapp's AppMessage inbox as reported in init packet or 0 if watchapp did not report it
+     * @return exclusive end offsets of the chunks in the text
+     */
+    public static int[] plan(byte[] text, int inboxSize)
+    {
+        //Only watchapps that report their inbox size can receive chunks sized in bytes
+        if (inboxSize <= MORE_TEXT_PACKET_OVERHEAD)
+            return TextChunker.splitByCharacters(text, LEGACY_CHUNK_CHARACTERS);
+
+        return TextChunker.splitByBytes(text, getMaximumChunkBytes(inboxSize));
+    }
+}
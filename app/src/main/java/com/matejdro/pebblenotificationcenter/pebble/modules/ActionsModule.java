@@ -6,10 +6,12 @@ import com.matejdro.pebblecommons.pebble.PebbleCommunication;
 import com.matejdro.pebblecommons.pebble.PebbleTalkerService;
 import com.matejdro.pebblenotificationcenter.NCTalkerService;
 import com.matejdro.pebblenotificationcenter.ProcessedNotification;
+import com.matejdro.pebblenotificationcenter.SentNotificationRegistry;
 import com.matejdro.pebblenotificationcenter.appsetting.AppSetting;
 import com.matejdro.pebblenotificationcenter.appsetting.AppSettingStorage;
 import com.matejdro.pebblenotificationcenter.notifications.actions.DismissOnPebbleAction;
 import com.matejdro.pebblenotificationcenter.notifications.actions.lists.ActionList;
+import com.matejdro.pebblenotificationcenter.notifications.actions.lists.ExpiredNotificationList;
 import com.matejdro.pebblenotificationcenter.notifications.actions.lists.NotificationActionList;
 import com.matejdro.pebblenotificationcenter.notifications.actions.DismissOnPhoneAction;
 import com.matejdro.pebblenotificationcenter.notifications.actions.NotificationAction;
@@ -100,14 +102,24 @@ public class ActionsModule extends CommModule
 
         Timber.d("Button action from Pebble, Type: " + type);
 
-        ProcessedNotification notification = NCTalkerService.fromPebbleTalkerService(getService()).sentNotifications.get(id);
+        SentNotificationRegistry sentNotifications = NCTalkerService.fromPebbleTalkerService(getService()).sentNotifications;
+        ProcessedNotification notification = sentNotifications.get(id);
         if (notification == null)
         {
+            if (sentNotifications.isExpired(id))
+            {
+                Timber.d("Expired notification " + id);
+                showList(new ExpiredNotificationList(getService(), id));
+                return;
+            }
+
             Timber.d("Invalid notification " + id);
             SystemModule.get(getService()).hideHourglass();
             return;
         }
 
+        sentNotifications.touch(id);
+
         if (notification.source.getActions() == null || notification.source.getActions().size() == 0)
         {
             DismissOnPhoneAction.dismissOnPhone(notification, NCTalkerService.fromPebbleTalkerService(getService()));
@@ -178,9 +190,18 @@ public class ActionsModule extends CommModule
 
         Timber.d("Got dismiss request from Pebble");
 
-        ProcessedNotification notification = NCTalkerService.fromPebbleTalkerService(getService()).sentNotifications.get(id);
+        SentNotificationRegistry sentNotifications = NCTalkerService.fromPebbleTalkerService(getService()).sentNotifications;
+        ProcessedNotification notification = sentNotifications.get(id);
         if (notification == null)
         {
+            if (sentNotifications.isExpired(id))
+            {
+                //We cannot dismiss expired notification on the phone anymore, but we can at least remove it from the watch
+                Timber.d("Expired notification " + id);
+                DismissUpwardsModule.dismissPebbleID(getService(), id);
+                return;
+            }
+
             Timber.d("Invalid notification!");
             SystemModule.get(getService()).hideHourglass();
             return;
@@ -2,7 +2,6 @@ package com.matejdro.pebblenotificationcenter.pebble.modules;
 
 import android.content.Context;
 import android.content.Intent;
-import android.util.SparseArray;
 
 import com.getpebble.android.kit.util.PebbleDictionary;
 import com.matejdro.pebblecommons.pebble.CommModule;
@@ -11,10 +10,11 @@ import com.matejdro.pebblecommons.pebble.PebbleTalkerService;
 import com.matejdro.pebblenotificationcenter.NCTalkerService;
 import com.matejdro.pebblenotificationcenter.NotificationKey;
 import com.matejdro.pebblenotificationcenter.PebbleNotification;
+import com.matejdro.pebblenotificationcenter.PebbleNotificationCenter;
 import com.matejdro.pebblenotificationcenter.ProcessedNotification;
+import com.matejdro.pebblenotificationcenter.SentNotificationRegistry;
 import com.matejdro.pebblenotificationcenter.appsetting.AppSetting;
 import com.matejdro.pebblenotificationcenter.appsetting.AppSettingStorage;
-import com.matejdro.pebblenotificationcenter.appsetting.SharedPreferencesAppStorage;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.Queue;
@@ -63,14 +63,16 @@ public class DismissUpwardsModule extends CommModule
     {
         Timber.d("Queueing dismiss packet for notification " + id);
 
-        ProcessedNotification notification = NCTalkerService.fromPebbleTalkerService(getService()).sentNotifications.get(id);
-        if (notification == null)
+        SentNotificationRegistry sentNotifications = NCTalkerService.fromPebbleTalkerService(getService()).sentNotifications;
+        ProcessedNotification notification = sentNotifications.get(id);
+        if (notification == null && !sentNotifications.isExpired(id))
         {
             Timber.w("Invalid notification ID!");
             return;
         }
 
-        if (notification.nativeNotification)
+        //Expired notifications were evicted from memory, but watch may still display them
+        if (notification != null && notification.nativeNotification)
         {
             getService().getDeveloperConnection().sendNotificationDismiss(id);
         }
@@ -114,29 +116,29 @@ public class DismissUpwardsModule extends CommModule
         if (key == null || key.getAndroidId() == null)
             return;
 
+        //Held back update of dismissed notification should not reach the watch
+        NotificationSendingModule.get(getService()).getDebouncer().cancel(key);
+
         AppSettingStorage settingsStorage;
         if (key.getPackage() == null)
             settingsStorage = NCTalkerService.fromPebbleTalkerService(getService()).getDefaultSettingsStorage();
         else
-            settingsStorage = new SharedPreferencesAppStorage(getService(), key.getPackage(), NCTalkerService.fromPebbleTalkerService(getService()).getDefaultSettingsStorage());
+            settingsStorage = PebbleNotificationCenter.getInMemorySettings().getAppSettingsCache().get(key.getPackage());
 
         boolean syncDismissUp = settingsStorage.getBoolean(AppSetting.DISMISS_UPRWADS);
         if (!syncDismissUp)
             return;
 
-        SparseArray<ProcessedNotification> sentNotifications = NCTalkerService.fromPebbleTalkerService(getService()).sentNotifications;
+        SentNotificationRegistry sentNotifications = NCTalkerService.fromPebbleTalkerService(getService()).sentNotifications;
 
-        for (int i = 0; i < sentNotifications.size(); i++)
+        for (ProcessedNotification notification : sentNotifications.getByKey(key))
         {
-            ProcessedNotification notification = sentNotifications.valueAt(i);
-
-            if (!notification.source.isListNotification() && notification.source.isSameNotification(key))
+            if (!notification.source.isListNotification())
             {
                 if (dismissImmediately)
                 {
                     dismissUpwards(notification);
                     dismissSimilarWearNotifications(notification);
-                    i--;
                 }
                 else
                 {
@@ -154,12 +156,10 @@ public class DismissUpwardsModule extends CommModule
 
         if (notification.source.getWearGroupType() == PebbleNotification.WEAR_GROUP_TYPE_GROUP_SUMMARY)
         {
-            SparseArray<ProcessedNotification> sentNotifications = NCTalkerService.fromPebbleTalkerService(getService()).sentNotifications;
+            SentNotificationRegistry sentNotifications = NCTalkerService.fromPebbleTalkerService(getService()).sentNotifications;
 
-            for (int i = 0; i < sentNotifications.size(); i++)
+            for (ProcessedNotification compare : sentNotifications.getByWearGroup(notification.source.getWearGroupKey()))
             {
-                ProcessedNotification compare = sentNotifications.valueAt(i);
-
                 if (notification.source.isInSameGroup(compare.source) && compare.source.getWearGroupType() == PebbleNotification.WEAR_GROUP_TYPE_GROUP_MESSAGE)
                 {
                     dismissNotification(getService(), compare.source.getKey());
@@ -175,21 +175,20 @@ public class DismissUpwardsModule extends CommModule
         if (pkg == null)
             return;
 
-        AppSettingStorage settingsStorage = new SharedPreferencesAppStorage(getService(), pkg, NCTalkerService.fromPebbleTalkerService(getService()).getDefaultSettingsStorage());
+        NotificationSendingModule.get(getService()).getDebouncer().cancelPackage(pkg);
+
+        AppSettingStorage settingsStorage = PebbleNotificationCenter.getInMemorySettings().getAppSettingsCache().get(pkg);
 
         boolean syncDismissUp = settingsStorage.getBoolean(AppSetting.DISMISS_UPRWADS);
         if (!syncDismissUp)
             return;
 
-        SparseArray<ProcessedNotification> sentNotifications = NCTalkerService.fromPebbleTalkerService(getService()).sentNotifications;
-        for (int i = 0; i < sentNotifications.size(); i++)
+        SentNotificationRegistry sentNotifications = NCTalkerService.fromPebbleTalkerService(getService()).sentNotifications;
+        for (ProcessedNotification notification : sentNotifications.getByPackage(pkg))
         {
-            ProcessedNotification notification = sentNotifications.valueAt(i);
-
-            if (!notification.source.isListNotification() && notification.source.getKey().getPackage().equals(pkg))
+            if (!notification.source.isListNotification())
             {
                 dismissUpwards(notification);
-                i--;
             }
         }
     }
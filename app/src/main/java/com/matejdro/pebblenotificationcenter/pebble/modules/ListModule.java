@@ -7,12 +7,14 @@ import com.matejdro.pebblecommons.pebble.PebbleCommunication;
 import com.matejdro.pebblecommons.pebble.PebbleTalkerService;
 import com.matejdro.pebblenotificationcenter.NCTalkerService;
 import com.matejdro.pebblenotificationcenter.PebbleNotification;
+import com.matejdro.pebblenotificationcenter.PebbleNotificationCenter;
 import com.matejdro.pebblenotificationcenter.lists.ActiveNotificationsAdapter;
 import com.matejdro.pebblenotificationcenter.lists.NotificationHistoryAdapter;
 import com.matejdro.pebblenotificationcenter.lists.NotificationListAdapter;
 import com.matejdro.pebblecommons.util.TextUtil;
-import java.text.DateFormat;
-import java.util.Date;
+import com.matejdro.pebblenotificationcenter.util.DateFormatCache;
+import com.matejdro.pebblenotificationcenter.util.TextChunker;
+import java.util.ArrayList;
 import timber.log.Timber;
 
 /**
@@ -22,12 +24,29 @@ public class ListModule extends CommModule
 {
     public static final int MODULE_LIST = 2;
 
+    private static final int MAX_ENTRIES_IN_BATCH = 16;
+    //Smallest inbox that Pebble firmware guarantees, used when watchapp did not report size of its inbox
+    private static final int FALLBACK_INBOX_SIZE = 124;
+    //Maximum length of title, subtitle and date in batched entries (without null terminator)
+    private static final int LIST_ENTRY_FIELD_BYTES = 20;
+
+    //Batch packet: module (uint8), packet id (uint8), offset (uint16), count (uint16), amount of entries (uint8), entries (byte array) and open window flag (uint8)
+    private static final int LIST_BATCH_PACKET_OVERHEAD = 1 +
+            7 + 1 +
+            7 + 1 +
+            7 + 2 +
+            7 + 2 +
+            7 + 1 +
+            7 +
+            7 + 1;
+
     private NotificationListAdapter listAdapter;
 
     private int sendNotification = -1;
     private int lastSentNotification = -1;
 
     private int nextListItemToSend = 0;
+    private int lastRequestedListItem = -1;
     private boolean openListWindow = false;
 
     public ListModule(PebbleTalkerService service)
@@ -48,16 +67,23 @@ public class ListModule extends CommModule
 
             if (localSendNotification < listAdapter.getNumOfNotifications())
             {
-                lastSentNotification = localSendNotification;
-                NotificationSendingModule.notify(listAdapter.getNotificationAt(localSendNotification), getService());
-                return true;
+                PebbleNotification notification = listAdapter.getNotificationAt(localSendNotification);
+                if (notification != null)
+                {
+                    lastSentNotification = localSendNotification;
+                    NotificationSendingModule.notify(notification, getService());
+                    return true;
+                }
             }
         }
 
         if (nextListItemToSend < 0)
             return false;
 
-        sendListItem(nextListItemToSend);
+        if (SystemModule.get(getService()).isListBatchingSupported())
+            sendListItemBatch(nextListItemToSend);
+        else
+            sendListItem(nextListItemToSend);
 
         nextListItemToSend = -1;
         openListWindow = false;
@@ -115,7 +141,9 @@ public class ListModule extends CommModule
     {
         PebbleDictionary data = new PebbleDictionary();
 
-        if (index >= listAdapter.getNumOfNotifications())
+        //Entry can be missing if it was deleted from history while list was open
+        PebbleNotification notification = index < listAdapter.getNumOfNotifications() ? listAdapter.getListEntryAt(index) : null;
+        if (notification == null)
         {
             data.addUint8(0, (byte) 2);
             data.addUint8(1, (byte) 0);
@@ -133,8 +161,6 @@ public class ListModule extends CommModule
             return;
         }
 
-        PebbleNotification notification = listAdapter.getNotificationAt(index);
-
         data.addUint8(0, (byte) 2);
         data.addUint8(1, (byte) 0);
         data.addUint16(2, (short) index);
@@ -142,7 +168,7 @@ public class ListModule extends CommModule
         data.addUint8(4, (byte) (notification.isDismissable() ? 0 : 1));
         data.addString(5, TextUtil.prepareString(notification.getTitle()));
         data.addString(6, TextUtil.prepareString(notification.getSubtitle()));
-        data.addString(7, getFormattedDate(getService(), notification.getRawPostTime()));
+        data.addString(7, getListEntryDate(notification.getRawPostTime()));
         if (openListWindow)
             data.addUint8(999, (byte) 1);
 
@@ -151,15 +177,129 @@ public class ListModule extends CommModule
         getService().getPebbleCommunication().sendToPebble(data);
     }
 
+    /**
+     * Sends requested list entry together with as many following entries (or previous entries when user is scrolling up) as fit into one packet,
+     * so watch does not need to request every entry separately.
+     */
+    public void sendListItemBatch(int index)
+    {
+        PebbleNotification requested = index < listAdapter.getNumOfNotifications() ? listAdapter.getListEntryAt(index) : null;
+        if (requested == null)
+        {
+            sendListItem(index);
+            return;
+        }
+
+        boolean scrollingUp = lastRequestedListItem >= 0 && index < lastRequestedListItem;
+        lastRequestedListItem = index;
+
+        int inboxSize = SystemModule.get(getService()).getWatchInboxSize();
+        if (inboxSize <= 0)
+            inboxSize = FALLBACK_INBOX_SIZE;
+        int maxPayload = inboxSize - LIST_BATCH_PACKET_OVERHEAD;
+
+        byte[] firstEntry = encodeListEntry(requested);
+        if (firstEntry.length > maxPayload)
+        {
+            //Watch would keep rejecting packet that does not fit into its inbox
+            sendListItem(index);
+            return;
+        }
+
+        ArrayList<byte[]> entries = new ArrayList<byte[]>(MAX_ENTRIES_IN_BATCH);
+        entries.add(firstEntry);
+        int payloadSize = firstEntry.length;
+        int firstIndex = index;
+
+        int direction = scrollingUp ? -1 : 1;
+        int nextIndex = index + direction;
+        while (entries.size() < MAX_ENTRIES_IN_BATCH && nextIndex >= 0 && nextIndex < listAdapter.getNumOfNotifications())
+        {
+            PebbleNotification notification = listAdapter.getListEntryAt(nextIndex);
+            if (notification == null)
+                break;
+
+            byte[] entry = encodeListEntry(notification);
+            if (payloadSize + entry.length > maxPayload)
+                break;
+
+            payloadSize += entry.length;
+            if (scrollingUp)
+            {
+                entries.add(0, entry);
+                firstIndex = nextIndex;
+            }
+            else
+            {
+                entries.add(entry);
+            }
+
+            nextIndex += direction;
+        }
+
+        byte[] payload = new byte[payloadSize];
+        int position = 0;
+        for (byte[] entry : entries)
+        {
+            System.arraycopy(entry, 0, payload, position, entry.length);
+            position += entry.length;
+        }
+
+        PebbleDictionary data = new PebbleDictionary();
+        data.addUint8(0, (byte) 2);
+        data.addUint8(1, (byte) 1);
+        data.addUint16(2, (short) firstIndex);
+        data.addUint16(3, (short) listAdapter.getNumOfNotifications());
+        data.addUint8(4, (byte) entries.size());
+        data.addBytes(5, payload);
+        if (openListWindow)
+            data.addUint8(999, (byte) 1);
+
+        Timber.i("Sending list entries " + firstIndex + " - " + (firstIndex + entries.size() - 1));
+
+        getService().getPebbleCommunication().sendToPebble(data);
+    }
+
+    /**
+     * @return list entry in batch format: type byte followed by null terminated title, subtitle and date, each trimmed to {@link #LIST_ENTRY_FIELD_BYTES}
+     */
+    private byte[] encodeListEntry(PebbleNotification notification)
+    {
+        byte[] title = TextChunker.encode(TextUtil.prepareString(notification.getTitle()));
+        byte[] subtitle = TextChunker.encode(TextUtil.prepareString(notification.getSubtitle()));
+        byte[] date = TextChunker.encode(getListEntryDate(notification.getRawPostTime()));
+
+        int titleLength = TextChunker.getPrefixLength(title, LIST_ENTRY_FIELD_BYTES);
+        int subtitleLength = TextChunker.getPrefixLength(subtitle, LIST_ENTRY_FIELD_BYTES);
+        int dateLength = TextChunker.getPrefixLength(date, LIST_ENTRY_FIELD_BYTES);
+
+        byte[] entry = new byte[1 + titleLength + 1 + subtitleLength + 1 + dateLength + 1];
+        entry[0] = (byte) (notification.isDismissable() ? 0 : 1);
+
+        int position = 1;
+        System.arraycopy(title, 0, entry, position, titleLength);
+        position += titleLength + 1;
+        System.arraycopy(subtitle, 0, entry, position, subtitleLength);
+        position += subtitleLength + 1;
+        System.arraycopy(date, 0, entry, position, dateLength);
+
+        return entry;
+    }
+
     public static String getFormattedDate(Context context, long date)
     {
-        DateFormat dateFormat = android.text.format.DateFormat.getDateFormat(context);
-        DateFormat timeFormat = android.text.format.DateFormat.getTimeFormat(context);
-        Date dateO = new Date(date);
+        return TextUtil.trimString(DateFormatCache.format(context, date));
+    }
 
-        String dateS = dateFormat.format(dateO) + " " + timeFormat.format(dateO);
+    /**
+     * @return date for the list entry, relative to now if user enabled that
+     */
+    private String getListEntryDate(long date)
+    {
+        if (getService().getGlobalSettings().getBoolean(PebbleNotificationCenter.RELATIVE_LIST_DATES, false))
+            return TextUtil.trimString(DateFormatCache.formatRelative(getService(), date));
 
-        return TextUtil.trimString(dateS);
+        return getFormattedDate(getService(), date);
     }
 
 
@@ -185,6 +325,14 @@ public class ListModule extends CommModule
     }
 
     public void showList(int id)
+    {
+        showList(id, null);
+    }
+
+    /**
+     * @param query search query for the history search list (ignored by other lists)
+     */
+    public void showList(int id, String query)
     {
         switch(id)
         {
@@ -194,11 +342,18 @@ public class ListModule extends CommModule
             case 1:
                 listAdapter = new NotificationHistoryAdapter(getService(), NCTalkerService.fromPebbleTalkerService(getService()).getHistoryDatabase());
                 break;
+            case 2:
+                if (query == null)
+                    return;
+
+                listAdapter = new NotificationHistoryAdapter(getService(), NCTalkerService.fromPebbleTalkerService(getService()).getHistoryDatabase(), query);
+                break;
             default:
                 return;
         }
 
         nextListItemToSend = 0;
+        lastRequestedListItem = -1;
         openListWindow = true;
 
         PebbleCommunication communication = getService().getPebbleCommunication();
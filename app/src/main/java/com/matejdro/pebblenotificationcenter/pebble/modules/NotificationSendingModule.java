@@ -4,7 +4,6 @@ import android.content.Context;
 import android.content.Intent;
 import android.graphics.Color;
 import android.media.AudioManager;
-import android.util.SparseArray;
 
 import com.getpebble.android.kit.PebbleKit;
 import com.getpebble.android.kit.util.PebbleDictionary;
@@ -16,6 +15,7 @@ import com.matejdro.pebblenotificationcenter.NCTalkerService;
 import com.matejdro.pebblenotificationcenter.PebbleNotification;
 import com.matejdro.pebblenotificationcenter.PebbleNotificationCenter;
 import com.matejdro.pebblenotificationcenter.ProcessedNotification;
+import com.matejdro.pebblenotificationcenter.SentNotificationRegistry;
 import com.matejdro.pebblenotificationcenter.appsetting.AppSetting;
 import com.matejdro.pebblenotificationcenter.appsetting.AppSettingStorage;
 import com.matejdro.pebblenotificationcenter.notifications.JellybeanNotificationListener;
@@ -23,16 +23,19 @@ import com.matejdro.pebblenotificationcenter.notifications.actions.DismissOnPebb
 import com.matejdro.pebblenotificationcenter.notifications.actions.NotificationAction;
 import com.matejdro.pebblenotificationcenter.notifications.actions.ReplaceNotificationAction;
 import com.matejdro.pebblenotificationcenter.pebble.NotificationCenterDeveloperConnection;
+import com.matejdro.pebblenotificationcenter.pebble.NotificationDebouncer;
+import com.matejdro.pebblenotificationcenter.pebble.NotificationSendingQueue;
+import com.matejdro.pebblenotificationcenter.pebble.TextChunkPlanner;
 import com.matejdro.pebblecommons.util.DeviceUtil;
 import com.matejdro.pebblenotificationcenter.util.PreferencesUtil;
+import com.matejdro.pebblenotificationcenter.util.RegexFilter;
+import com.matejdro.pebblenotificationcenter.util.TextChunker;
+import com.matejdro.pebblenotificationcenter.util.TitleHeuristics;
 import com.matejdro.pebblecommons.util.TextUtil;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.HashMap;
-import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Queue;
 import java.util.Random;
 import java.util.UUID;
 import timber.log.Timber;
@@ -48,15 +51,39 @@ public class NotificationSendingModule extends CommModule
     public static final int TEXT_LIMIT = 2000;
     public static final int TITLE_TEXT_LIMIT = 30;
 
+    public static final int DEFAULT_SENT_NOTIFICATIONS_LIMIT = 100;
+    public static final int DEFAULT_SENT_NOTIFICATIONS_MAX_AGE_HOURS = 24;
+
     private HashMap<String, Long> lastAppVibration = new HashMap<String, Long>();
     private HashMap<String, Long> lastAppNotification = new HashMap<String, Long>();
     private ProcessedNotification curSendingNotification;
-    private Queue<ProcessedNotification> sendingQueue = new LinkedList<ProcessedNotification>();
+    private NotificationSendingQueue sendingQueue = new NotificationSendingQueue();
+
+    private NotificationDebouncer debouncer;
 
     public NotificationSendingModule(PebbleTalkerService service)
     {
         super(service);
         service.registerIntent(INTENT_NOTIFICATION, this);
+
+        debouncer = new NotificationDebouncer(new NotificationDebouncer.NotificationProcessor()
+        {
+            @Override
+            public void processNotification(PebbleNotification notification)
+            {
+                NotificationSendingModule.this.processNotification(notification);
+            }
+        });
+    }
+
+    public NotificationDebouncer getDebouncer()
+    {
+        return debouncer;
+    }
+
+    public void close()
+    {
+        debouncer.clear();
     }
 
     public void processNotification(PebbleNotification notificationSource)
@@ -82,53 +109,35 @@ public class NotificationSendingModule extends CommModule
             }
         }
         
-        if (notificationSource.getSubtitle().isEmpty())
-        {
-            //Attempt to figure out subtitle
-            String subtitle = "";
-            String text = notificationSource.getText();
-
-            if (text.contains("\n"))
-            {
-                int firstLineBreak = text.indexOf('\n');
-                if (firstLineBreak < TITLE_TEXT_LIMIT && firstLineBreak < text.length() * 0.8)
-                {
-                    subtitle = text.substring(0, firstLineBreak).trim();
-                    text = text.substring(firstLineBreak).trim();
-                }
-            }
-
-            notificationSource.setText(text);
-            notificationSource.setSubtitle(subtitle);
-        }
-        else if (notificationSource.getSubtitle().length() > TITLE_TEXT_LIMIT)
-        {
-            //Do not cut off titles which some apps make very long
-            notificationSource.setText(notificationSource.getSubtitle() + "\n" + notificationSource.getText());
-            notificationSource.setSubtitle("");
-        }
-
-        if (notificationSource.getTitle().trim().equals(notificationSource.getSubtitle().trim()))
-            notificationSource.setSubtitle("");
+        String[] titles = TitleHeuristics.apply(notificationSource.getTitle(), notificationSource.getSubtitle(), notificationSource.getText(), TITLE_TEXT_LIMIT);
+        notificationSource.setTitle(titles[0]);
+        notificationSource.setSubtitle(titles[1]);
+        notificationSource.setText(titles[2]);
 
         int textLimit = getMaximumTextLength(settingStorage);
 
         if (!notificationSource.isListNotification())
         {
             String combinedText = notificationSource.getTitle() + "\n" + notificationSource.getSubtitle() + "\n" + notificationSource.getText();
-            List<String> regexList = settingStorage.getStringList(AppSetting.INCLUDED_REGEX);
-            if (regexList.size() > 0 && !TextUtil.containsRegexes(combinedText, regexList))
+            RegexFilter includedFilter = AppSetting.getRegexFilter(settingStorage, AppSetting.INCLUDED_REGEX);
+            if (!includedFilter.isEmpty() && !includedFilter.matches(combinedText))
+            {
+                Timber.d("notify failed - no included regex matched");
                 return;
+            }
 
-            regexList = settingStorage.getStringList(AppSetting.EXCLUDED_REGEX);
-            if (TextUtil.containsRegexes(combinedText, regexList))
+            String excludingRule = AppSetting.getRegexFilter(settingStorage, AppSetting.EXCLUDED_REGEX).findMatchingRule(combinedText);
+            if (excludingRule != null)
+            {
+                Timber.d("notify failed - excluded by regex " + excludingRule);
                 return;
+            }
 
             if (!notificationSource.isHistoryDisabled() &&
                     settingStorage.getBoolean(AppSetting.SAVE_TO_HISTORY) &&
                     canDisplayWearGroupNotification(notification.source, settingStorage))
             {
-                NCTalkerService.fromPebbleTalkerService(getService()).getHistoryDatabase().storeNotification(notificationSource.getRawPostTime(), TextUtil.trimString(notificationSource.getTitle(), 30, true), TextUtil.trimString(notificationSource.getSubtitle(), 30, true), TextUtil.trimString(notificationSource.getText(), textLimit, true));
+                NCTalkerService.fromPebbleTalkerService(getService()).getHistoryDatabase().storeNotification(notificationSource.getRawPostTime(), notificationSource.getKey().getPackage(), TextUtil.trimString(notificationSource.getTitle(), 30, true), TextUtil.trimString(notificationSource.getSubtitle(), 30, true), TextUtil.trimString(notificationSource.getText(), textLimit, true));
             }
         }
 
@@ -204,14 +213,7 @@ public class NotificationSendingModule extends CommModule
                 return;
             }
 
-            int minNotificationInterval = 0;
-            try
-            {
-                minNotificationInterval = Integer.parseInt(settingStorage.getString(AppSetting.MINIMUM_NOTIFICATION_INTERVAL));
-            }
-            catch (NumberFormatException e)
-            {
-            }
+            int minNotificationInterval = AppSetting.parseInt(settingStorage, AppSetting.MINIMUM_NOTIFICATION_INTERVAL, 0);
 
             if (minNotificationInterval > 0) {
                 Long lastNotification = lastAppNotification.get(notification.source.getKey().getPackage());
@@ -228,18 +230,19 @@ public class NotificationSendingModule extends CommModule
         if (Color.alpha(colorFromConfig) != 0)
             notificationSource.setColor(colorFromConfig);
 
-        SparseArray<ProcessedNotification> sentNotifications = NCTalkerService.fromPebbleTalkerService(getService()).sentNotifications;
+        SentNotificationRegistry sentNotifications = NCTalkerService.fromPebbleTalkerService(getService()).sentNotifications;
 
         Random rnd = new Random();
         do
         {
             notification.id = rnd.nextInt();
         }
-        while (sentNotifications.get(notification.id) != null);
+        while (sentNotifications.contains(notification.id) || sentNotifications.isExpired(notification.id));
 
         if (!notification.source.isListNotification() && !canDisplayWearGroupNotification(notification.source, settingStorage))
         {
-            sentNotifications.put(notification.id, notification);
+            sentNotifications.put(notification);
+            trimSentNotifications();
             Timber.d("notify failed - group");
             return;
         }
@@ -279,7 +282,8 @@ public class NotificationSendingModule extends CommModule
 
     public void sendNotification(ProcessedNotification notification)
     {
-        NCTalkerService.fromPebbleTalkerService(getService()).sentNotifications.put(notification.id, notification);
+        NCTalkerService.fromPebbleTalkerService(getService()).sentNotifications.put(notification);
+        trimSentNotifications();
 
         int pebbleAppMode = 0;
         if (!notification.source.isListNotification())
@@ -333,22 +337,35 @@ public class NotificationSendingModule extends CommModule
 
         notification.nativeNotification = false;
 
-        //Split text into chunks
-        String text = notification.source.getText();
-        while (text.length() > 0)
-        {
-            String chunk = TextUtil.trimString(text, 100, false);
-            notification.textChunks.add(chunk);
-            text = text.substring(chunk.length());
-        }
+        //Text is split into chunks when sending starts, because connected watch platform is only known after watchapp is opened
+        notification.textBytes = TextChunker.encode(notification.source.getText());
+        notification.textChunkEnds = null;
 
-        Timber.d("BeginSend " + notification.id + " " + notification.source.getTitle() + " " + notification.source.getSubtitle() + " " + notification.textChunks.size());
+        Timber.d("BeginSend " + notification.id + " " + notification.source.getTitle() + " " + notification.source.getSubtitle() + " " + notification.textBytes.length);
 
         SystemModule.get(getService()).openApp();
 
         if (curSendingNotification != null && !curSendingNotification.source.isListNotification())
         {
-            sendingQueue.add(notification);
+            //Do not waste bandwidth on the rest of the text that was already superseded by this notification
+            if (!notification.source.isListNotification() && curSendingNotification.nextChunkToSend >= 0 &&
+                    curSendingNotification.source.isSameNotification(notification.source.getKey()))
+            {
+                Timber.d("Notification " + curSendingNotification.id + " superseded during transfer by " + notification.id);
+                curSendingNotification.nextChunkToSend = curSendingNotification.getNumberOfTextChunks();
+            }
+
+            int priority = notification.source.getSettingStorage(getService()).getInt(AppSetting.SENDING_PRIORITY);
+            List<ProcessedNotification> replaced = sendingQueue.add(notification, priority);
+
+            //Replaced notifications were never displayed on the watch
+            SentNotificationRegistry sentNotifications = NCTalkerService.fromPebbleTalkerService(getService()).sentNotifications;
+            for (ProcessedNotification replacedNotification : replaced)
+            {
+                Timber.d("Queued notification " + replacedNotification.id + " replaced by " + notification.id);
+                sentNotifications.remove(replacedNotification.id);
+            }
+
             return;
         }
 
@@ -365,15 +382,12 @@ public class NotificationSendingModule extends CommModule
 
         curSendingNotification.nextChunkToSend = 0;
 
+        int pebblePlatform = getService().getPebbleCommunication().getConnectedPebblePlatform();
+        curSendingNotification.textChunkEnds = TextChunkPlanner.plan(curSendingNotification.textBytes, SystemModule.get(getService()).getWatchInboxSize());
+
         AppSettingStorage settingStorage = curSendingNotification.source.getSettingStorage(getService());
 
-        int periodicVibrationInterval = 0;
-        try
-        {
-            periodicVibrationInterval = Math.min(Integer.parseInt(settingStorage.getString(AppSetting.PERIODIC_VIBRATION)), 30000);
-        } catch (NumberFormatException e)
-        {
-        }
+        int periodicVibrationInterval = Math.min(AppSetting.parseInt(settingStorage, AppSetting.PERIODIC_VIBRATION, 0), 30000);
 
         PebbleDictionary data = new PebbleDictionary();
         List<Byte> vibrationPattern = getVibrationPattern(curSendingNotification, settingStorage);
@@ -395,7 +409,7 @@ public class NotificationSendingModule extends CommModule
             flags |= (byte) (settingStorage.getInt(AppSetting.SELECT_HOLD_ACTION) == 2 ? 0x20 : 0);
         }
 
-        int textLength = curSendingNotification.source.getText().getBytes().length;
+        int textLength = curSendingNotification.textBytes.length;
 
         byte[] configBytes = new byte[12 + vibrationPattern.size()];
         configBytes[0] = flags;
@@ -415,7 +429,7 @@ public class NotificationSendingModule extends CommModule
         configBytes[8] = (byte) settingStorage.getInt(AppSetting.SUBTITLE_FONT);
         configBytes[9] = (byte) settingStorage.getInt(AppSetting.BOCY_FONT);
 
-        if (getService().getPebbleCommunication().getConnectedPebblePlatform() == PebbleCommunication.PEBBLE_PLATFORM_BASSALT)
+        if (pebblePlatform == PebbleCommunication.PEBBLE_PLATFORM_BASSALT)
             configBytes[10] = PebbleImageToolkit.getGColor8FromRGBColor(curSendingNotification.source.getColor());
 
         configBytes[11] = (byte) vibrationPattern.size();
@@ -438,11 +452,13 @@ public class NotificationSendingModule extends CommModule
     {
         Timber.d("Sending more text... " + curSendingNotification.id + " " + curSendingNotification.nextChunkToSend);
 
+        //Stop-and-wait: every packet goes through PebbleCommunication, so all transaction IDs come from one allocator.
+        //Windowed transfer can only be added once PebbleCommunication itself can keep several packets in flight.
         PebbleDictionary data = new PebbleDictionary();
         data.addUint8(0, (byte) 1);
         data.addUint8(1, (byte) 1);
         data.addInt32(2, curSendingNotification.id);
-        data.addString(3, curSendingNotification.textChunks.get(curSendingNotification.nextChunkToSend));
+        data.addString(3, curSendingNotification.getTextChunk(curSendingNotification.nextChunkToSend));
 
         getService().getPebbleCommunication().sendToPebble(data);
         curSendingNotification.nextChunkToSend++;
@@ -461,7 +477,7 @@ public class NotificationSendingModule extends CommModule
         {
             sendInitialNotificationPacket();
         }
-        else if (curSendingNotification.nextChunkToSend < curSendingNotification.textChunks.size())
+        else if (curSendingNotification.nextChunkToSend < curSendingNotification.getNumberOfTextChunks())
         {
             sendMoreText();
         }
@@ -487,7 +503,11 @@ public class NotificationSendingModule extends CommModule
         if (notification == null)
             return;
 
-        processNotification(notification);
+        int debounceWindow = 0;
+        if (!notification.isListNotification())
+            debounceWindow = AppSetting.parseInt(notification.getSettingStorage(getService()), AppSetting.UPDATE_DEBOUNCE_WINDOW, 0);
+
+        debouncer.submit(notification, debounceWindow);
     }
 
     @Override
@@ -504,15 +524,7 @@ public class NotificationSendingModule extends CommModule
     private List<Byte> getVibrationPattern(ProcessedNotification notification, AppSettingStorage settingStorage)
     {
         Long lastVibration = lastAppVibration.get(notification.source.getKey().getPackage());
-        int minInterval = 0;
-
-        try
-        {
-            minInterval = Integer.parseInt(settingStorage.getString(AppSetting.MINIMUM_VIBRATION_INTERVAL));
-        }
-        catch (NumberFormatException e)
-        {
-        }
+        int minInterval = AppSetting.parseInt(settingStorage, AppSetting.MINIMUM_VIBRATION_INTERVAL, 0);
 
         Timber.d("MinInterval: " + minInterval);
         Timber.d("LastVib: " + lastVibration);
@@ -547,23 +559,44 @@ public class NotificationSendingModule extends CommModule
         boolean sendIdentical = settingStorage.getBoolean(AppSetting.SEND_IDENTICAL_NOTIFICATIONS);
         if (notification.getWearGroupType() == PebbleNotification.WEAR_GROUP_TYPE_GROUP_MESSAGE || !sendIdentical)
         {
-            SparseArray<ProcessedNotification> sentNotifications = NCTalkerService.fromPebbleTalkerService(getService()).sentNotifications;
+            SentNotificationRegistry sentNotifications = NCTalkerService.fromPebbleTalkerService(getService()).sentNotifications;
 
             //Prevent re-sending of the first message.
-            for (int i = 0; i < sentNotifications.size(); i++)
+            if (sentNotifications.containsIdenticalContent(notification, !sendIdentical))
             {
-                ProcessedNotification comparing = sentNotifications.valueAt(i);
-                if ((comparing.source.getWearGroupType() != PebbleNotification.WEAR_GROUP_TYPE_GROUP_SUMMARY || !sendIdentical) && notification.hasIdenticalContent(comparing.source))
-                {
-                    Timber.d("group notify failed - same notification exists");
-                    return false;
-                }
+                Timber.d("group notify failed - same notification exists");
+                return false;
             }
         }
 
         return true;
     }
 
+    /**
+     * Evicts old notifications from memory according to the user's retention settings. Notifications that are still waiting to be sent are never evicted.
+     */
+    private void trimSentNotifications()
+    {
+        int maxCount = DEFAULT_SENT_NOTIFICATIONS_LIMIT;
+        int maxAgeHours = DEFAULT_SENT_NOTIFICATIONS_MAX_AGE_HOURS;
+        try
+        {
+            maxCount = Math.max(1, Integer.parseInt(getService().getGlobalSettings().getString(PebbleNotificationCenter.SENT_NOTIFICATIONS_LIMIT, Integer.toString(DEFAULT_SENT_NOTIFICATIONS_LIMIT))));
+            maxAgeHours = Math.max(1, Integer.parseInt(getService().getGlobalSettings().getString(PebbleNotificationCenter.SENT_NOTIFICATIONS_MAX_AGE, Integer.toString(DEFAULT_SENT_NOTIFICATIONS_MAX_AGE_HOURS))));
+        }
+        catch (NumberFormatException e)
+        {
+        }
+
+        List<Integer> pendingIds = new ArrayList<Integer>(sendingQueue.size() + 1);
+        if (curSendingNotification != null)
+            pendingIds.add(curSendingNotification.id);
+        for (ProcessedNotification notification : sendingQueue)
+            pendingIds.add(notification.id);
+
+        NCTalkerService.fromPebbleTalkerService(getService()).sentNotifications.trim(maxCount, maxAgeHours * 60L * 60 * 1000, pendingIds);
+    }
+
     public boolean isAnyNotificationWaiting()
     {
         return curSendingNotification != null || !sendingQueue.isEmpty();
@@ -571,16 +604,7 @@ public class NotificationSendingModule extends CommModule
 
     public void removeNotificationFromSendingQueue(int id)
     {
-        Iterator<ProcessedNotification> iterator = sendingQueue.iterator();
-        while (iterator.hasNext())
-        {
-            ProcessedNotification notification = iterator.next();
-
-            if (notification.id == id)
-            {
-                iterator.remove();
-            }
-        }
+        sendingQueue.remove(id);
     }
 
     public ProcessedNotification getCurrrentSendingNotification()
@@ -604,18 +628,9 @@ public class NotificationSendingModule extends CommModule
 
     public static int getMaximumTextLength(AppSettingStorage storage)
     {
-        int limit = TEXT_LIMIT;
-
-        try
-        {
-            limit = Math.min(Integer.parseInt(storage.getString(AppSetting.MAXIMUM_TEXT_LENGTH)), TEXT_LIMIT);
-            if (limit < 4) //Minimum limit is 4 to allow ...
-                limit = 4;
-        }
-        catch (NumberFormatException e)
-        {
-
-        }
+        int limit = Math.min(AppSetting.parseInt(storage, AppSetting.MAXIMUM_TEXT_LENGTH, TEXT_LIMIT), TEXT_LIMIT);
+        if (limit < 4) //Minimum limit is 4 to allow ...
+            limit = 4;
 
         return limit;
     }
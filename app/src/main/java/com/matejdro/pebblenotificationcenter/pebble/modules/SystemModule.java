@@ -30,10 +30,15 @@ public class SystemModule extends CommModule
 
     public static final String INTENT_PEBBLE_CONNECTED = "PebbleConnected";
 
+    //Capability flags that watchapp reports in init packet
+    public static final int WATCH_CAPABILITY_LIST_BATCHING = 0x01;
+
     private Callable<Boolean> runOnNext;
     private UUID currentRunningApp;
 
     private int closeTries = 0;
+    private int watchCapabilities = 0;
+    private int watchInboxSize = 0;
 
     public SystemModule(PebbleTalkerService service)
     {
@@ -72,7 +77,7 @@ public class SystemModule extends CommModule
         data.addUint8(0, (byte) 0);
         data.addUint8(1, (byte) 0);
 
-        byte[] configBytes = new byte[13];
+        byte[] configBytes = new byte[14];
 
         int timeout = 0;
         try
@@ -135,6 +140,7 @@ public class SystemModule extends CommModule
         configBytes[9] = (byte) WatchappHandler.SUPPORTED_PROTOCOL;
         configBytes[11] = (byte) (vibratingTimeout >>> 0x08);
         configBytes[12] = (byte) vibratingTimeout;
+        configBytes[13] = 1; //Transfer window, phone always uses stop-and-wait
 
         data.addBytes(2, configBytes);
 
@@ -210,6 +216,16 @@ public class SystemModule extends CommModule
             getService().getPebbleCommunication().setConnectedPebblePlatform(pebblePlatform);
             Timber.d("Pebble Platform: " + pebblePlatform);
 
+            watchCapabilities = 0;
+            if (message.contains(5))
+                watchCapabilities = message.getUnsignedIntegerAsLong(5).intValue();
+            Timber.d("Watch capabilities: " + watchCapabilities);
+
+            watchInboxSize = 0;
+            if (message.contains(6))
+                watchInboxSize = message.getUnsignedIntegerAsLong(6).intValue();
+            Timber.d("Watch inbox size: " + watchInboxSize);
+
 
             SparseArray<CommModule> modules = getService().getAllModules();
             for (int i = 0 ; i < modules.size(); i++)
@@ -235,6 +251,22 @@ public class SystemModule extends CommModule
         communication.sendNext();
     }
 
+    /**
+     * @return size of the watchapp's AppMessage inbox in bytes or 0 if watchapp did not report it.
+     */
+    public int getWatchInboxSize()
+    {
+        return watchInboxSize;
+    }
+
+    /**
+     * @return <code>true</code> if watchapp reported that it can receive multiple list entries in one packet.
+     */
+    public boolean isListBatchingSupported()
+    {
+        return (watchCapabilities & WATCH_CAPABILITY_LIST_BATCHING) != 0;
+    }
+
     public void hideHourglass()
     {
         runOnNext = new Callable<Boolean>()
@@ -284,7 +316,8 @@ public class SystemModule extends CommModule
     private void gotMessageMenuItem(PebbleDictionary message)
     {
         int id = message.getUnsignedIntegerAsLong(2).intValue();
-        ListModule.get(getService()).showList(id);
+        String query = message.getString(3);
+        ListModule.get(getService()).showList(id, query);
     }
 
     @Override
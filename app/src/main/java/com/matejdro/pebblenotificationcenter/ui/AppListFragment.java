@@ -29,6 +29,7 @@ import com.matejdro.pebblenotificationcenter.R;
 import com.matejdro.pebblenotificationcenter.appsetting.AppSetting;
 import com.matejdro.pebblenotificationcenter.appsetting.DefaultAppSettingsStorage;
 import com.matejdro.pebblenotificationcenter.ui.perapp.PerAppActivity;
+import com.matejdro.pebblenotificationcenter.util.AppLabelCache;
 import com.matejdro.pebblenotificationcenter.util.PreferencesUtil;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -247,6 +248,7 @@ public class AppListFragment extends Fragment {
                 return null;
 
             final PackageManager pm = context.getPackageManager();
+            AppLabelCache labelCache = PebbleNotificationCenter.getAppLabelCache();
 			List<PackageInfo> packages = pm.getInstalledPackages(0);
 
 			for (PackageInfo packageInfo : packages) {
@@ -263,7 +265,7 @@ public class AppListFragment extends Fragment {
 						AppInfoStorage storage = new AppInfoStorage();
 
 						storage.packageName = appInfo.packageName;
-						storage.label = pm.getApplicationLabel(appInfo);
+						storage.label = labelCache.get(pm, appInfo);
 
 						apps.add(storage);
 					}
@@ -8,6 +8,7 @@ import android.content.DialogInterface;
 import android.content.Intent;
 import android.content.SharedPreferences;
 import android.net.Uri;
+import android.os.AsyncTask;
 import android.os.Bundle;
 import android.os.Environment;
 import android.preference.PreferenceManager;
@@ -192,15 +193,40 @@ public class MainActivity extends ActionBarActivity /*implements ActionBar.TabLi
             @Override
             public void onClick(DialogInterface dialogInterface, int i)
             {
-                new NotificationHistoryStorage(MainActivity.this).clearDatabase();
                 dialogInterface.dismiss();
-                Toast.makeText(MainActivity.this, R.string.historyCleared, Toast.LENGTH_SHORT).show();
+                new HistoryClearingTask(getApplicationContext()).execute();
             }
         });
 
         builder.show();
     }
 
+    private static class HistoryClearingTask extends AsyncTask<Void, Void, Void>
+    {
+        private Context context;
+
+        private HistoryClearingTask(Context context)
+        {
+            this.context = context;
+        }
+
+        @Override
+        protected Void doInBackground(Void... params)
+        {
+            //Opening the database can run migrations, so it is never done on the UI thread
+            NotificationHistoryStorage storage = new NotificationHistoryStorage(context);
+            storage.clearDatabase();
+            storage.close();
+            return null;
+        }
+
+        @Override
+        protected void onPostExecute(Void result)
+        {
+            Toast.makeText(context, R.string.historyCleared, Toast.LENGTH_SHORT).show();
+        }
+    }
+
     private void backupConfig()
     {
         AlertDialog.Builder builder = new AlertDialog.Builder(this).setMessage(R.string.backupDialogText).setTitle(R.string.backupDialogTitle);
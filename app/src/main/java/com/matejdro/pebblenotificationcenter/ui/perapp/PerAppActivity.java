@@ -125,6 +125,7 @@ public class PerAppActivity extends Activity implements ColorPickerDialogFragmen
         category.add(new CheckBoxItem(settingsStorage, AppSetting.SWITCH_TO_MOST_RECENT_NOTIFICATION, R.string.settingSwitchToRecent, R.string.settingSwitchToRecentDescription));
         category.add(new QuietHoursItem(settingsStorage, R.string.settingQuietHours, R.string.settingQuietHoursDescription));
         category.add(new CheckBoxItem(settingsStorage, AppSetting.SAVE_TO_HISTORY, R.string.settingSaveToHistory, R.string.settingSaveToHistoryDescription));
+        category.add(new EditTextItem(settingsStorage, AppSetting.HISTORY_APP_LIMIT, InputType.TYPE_CLASS_NUMBER | InputType.TYPE_NUMBER_VARIATION_NORMAL, R.string.settingHistoryAppLimit, R.string.settingHistoryAppLimitDescription));
         if (version(Build.VERSION_CODES.JELLY_BEAN_MR2)) category.add(new CheckBoxItem(settingsStorage, AppSetting.DISMISS_UPRWADS, R.string.settingDismissUpwards, R.string.settingDismissUpwardsDescripition));
         category.add(new EditTextItem(settingsStorage, AppSetting.CUSTOM_TITLE, InputType.TYPE_CLASS_TEXT | InputType.TYPE_TEXT_VARIATION_NORMAL, R.string.settingCustomTitle, R.string.settingCustomTitleDescription));
         category.add(new EditTextItem(settingsStorage, AppSetting.MAXIMUM_TEXT_LENGTH, InputType.TYPE_CLASS_NUMBER | InputType.TYPE_NUMBER_VARIATION_NORMAL, R.string.settingMaximumLength, R.string.settingMaximumLengthDescription));
@@ -133,6 +134,9 @@ public class PerAppActivity extends Activity implements ColorPickerDialogFragmen
         category.add(new SpinnerItem(settingsStorage, AppSetting.BOCY_FONT, R.array.pebbleFonts, R.string.settingFontBody, 0, R.array.fontValues));
         category.add(new CheckBoxItem(settingsStorage, AppSetting.ALWAYS_PARSE_STATUSBAR_NOTIFICATION, R.string.settingAlwaysParseStatusbarNotification, R.string.settingAlwaysParseStatusbarNotificationDescription));
         category.add(new CheckBoxItem(settingsStorage, AppSetting.HIDE_NOTIFICATION_TEXT, R.string.settingHideNotificationText, R.string.settingHideNotificationTextDescription));
+        category.add(new EditTextItem(settingsStorage, AppSetting.UPDATE_DEBOUNCE_WINDOW, InputType.TYPE_CLASS_NUMBER | InputType.TYPE_NUMBER_VARIATION_NORMAL, R.string.settingUpdateDebounceWindow, R.string.settingUpdateDebounceWindowDescription));
+        category.add(new SpinnerItem(settingsStorage, AppSetting.SENDING_PRIORITY, R.array.settingSendingPriority, R.string.settingSendingPriority, R.string.settingSendingPriorityDescription, R.array.settingSendingPriorityValues));
+        category.add(new SpinnerItem(settingsStorage, AppSetting.INGESTION_DROP_POLICY, R.array.settingIngestionDropPolicy, R.string.settingIngestionDropPolicy, R.string.settingIngestionDropPolicyDescription, R.array.settingIngestionDropPolicyValues));
         if (version(Build.VERSION_CODES.ICE_CREAM_SANDWICH_MR1)) category.add(new ColorPickerItem(settingsStorage, AppSetting.STATUSBAR_COLOR, R.string.settingStatusbarColor, R.string.settingStatusbarColorDescription));
 
         settings.add(new SettingsCategory(0, category));
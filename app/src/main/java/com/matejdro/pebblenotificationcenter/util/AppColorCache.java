@@ -0,0 +1,55 @@
+package com.matejdro.pebblenotificationcenter.util;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.graphics.Color;
+import android.support.annotation.Nullable;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Persistent cache of colors resolved from app themes. Resolving theme color requires loading resources of the other app,
+ * so it is only done once per app install. Entries are invalidated by {@link PackageChangeReceiver} when app is updated or removed.
+ *
+ * Apps without theme color are stored as {@link Color#TRANSPARENT}.
+ */
+public class AppColorCache
+{
+    private static final String PREFERENCES_NAME = "AppColorCache";
+
+    private SharedPreferences preferences;
+    private ConcurrentHashMap<String, Integer> colors = new ConcurrentHashMap<String, Integer>();
+
+    public AppColorCache(Context context)
+    {
+        preferences = context.getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE);
+    }
+
+    /**
+     * @return cached theme color of the app or <code>null</code> if color of this app is not known yet.
+     */
+    public @Nullable Integer get(String pkg)
+    {
+        Integer color = colors.get(pkg);
+        if (color != null)
+            return color;
+
+        if (!preferences.contains(pkg))
+            return null;
+
+        color = preferences.getInt(pkg, Color.TRANSPARENT);
+        colors.put(pkg, color);
+        return color;
+    }
+
+    public void put(String pkg, int color)
+    {
+        colors.put(pkg, color);
+        preferences.edit().putInt(pkg, color).apply();
+    }
+
+    public void invalidate(String pkg)
+    {
+        colors.remove(pkg);
+        preferences.edit().remove(pkg).apply();
+    }
+}
@@ -0,0 +1,82 @@
+package com.matejdro.pebblenotificationcenter.util;
+
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+import android.content.pm.PackageManager;
+import android.support.annotation.Nullable;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import timber.log.Timber;
+
+/**
+ * In-memory cache of app labels, shared between notification processing and the app list in settings.
+ *
+ * Entries are invalidated by {@link PackageChangeReceiver} when app is updated or removed and whole cache is cleared when locale changes.
+ */
+public class AppLabelCache
+{
+    private ConcurrentHashMap<String, String> labels = new ConcurrentHashMap<String, String>();
+
+    /**
+     * @return label of the app or <code>null</code> if app is not installed.
+     */
+    public @Nullable String get(Context context, String pkg)
+    {
+        String label = labels.get(pkg);
+        if (label != null)
+            return label;
+
+        PackageManager packageManager = context.getPackageManager();
+        try
+        {
+            return get(packageManager, packageManager.getApplicationInfo(pkg, 0));
+        }
+        catch (PackageManager.NameNotFoundException e)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * @return label of the app. Use this variant when {@link ApplicationInfo} is already available.
+     */
+    public String get(PackageManager packageManager, ApplicationInfo applicationInfo)
+    {
+        String label = labels.get(applicationInfo.packageName);
+        if (label != null)
+            return label;
+
+        label = packageManager.getApplicationLabel(applicationInfo).toString();
+        labels.put(applicationInfo.packageName, label);
+        return label;
+    }
+
+    /**
+     * Loads labels of specified apps on the background thread.
+     */
+    public void warmUp(Context context, final Collection<String> packages)
+    {
+        final Context appContext = context.getApplicationContext();
+        new Thread("AppLabelCacheWarmUp")
+        {
+            @Override
+            public void run()
+            {
+                for (String pkg : packages)
+                    get(appContext, pkg);
+
+                Timber.d("Warmed up labels of " + packages.size() + " apps");
+            }
+        }.start();
+    }
+
+    public void invalidate(String pkg)
+    {
+        labels.remove(pkg);
+    }
+
+    public void clear()
+    {
+        labels.clear();
+    }
+}
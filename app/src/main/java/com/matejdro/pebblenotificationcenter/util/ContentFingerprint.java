@@ -0,0 +1,43 @@
+package com.matejdro.pebblenotificationcenter.util;
+
+/**
+ * 64-bit FNV-1a hash of notification content, used to find notifications with identical content without comparing all strings.
+ */
+public class ContentFingerprint
+{
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /**
+     * @return hash of the package, title, subtitle and text. Never 0, so callers can use 0 as "not calculated" marker.
+     */
+    public static long calculate(String pkg, String title, String subtitle, String text)
+    {
+        long hash = FNV_OFFSET_BASIS;
+        hash = fingerprintString(hash, pkg);
+        hash = fingerprintString(hash, title);
+        hash = fingerprintString(hash, subtitle);
+        hash = fingerprintString(hash, text);
+
+        return hash == 0 ? 1 : hash;
+    }
+
+    private static long fingerprintString(long hash, String string)
+    {
+        if (string != null)
+        {
+            int length = string.length();
+            for (int i = 0; i < length; i++)
+            {
+                char c = string.charAt(i);
+                hash = (hash ^ (c & 0xFF)) * FNV_PRIME;
+                hash = (hash ^ (c >>> 8)) * FNV_PRIME;
+            }
+        }
+
+        //Separator, so moving characters between fields changes the hash
+        hash = (hash ^ 0xFF) * FNV_PRIME;
+        hash = (hash ^ 0xFF) * FNV_PRIME;
+        return hash;
+    }
+}
@@ -0,0 +1,64 @@
+package com.matejdro.pebblenotificationcenter.util;
+
+import android.content.Context;
+import java.text.DateFormat;
+import java.util.Date;
+
+/**
+ * Keeps user's date and time formats, so they are not rebuilt for every formatted date.
+ * Formats are cleared by {@link TimeSettingsChangeReceiver} when time, time zone or locale settings change.
+ */
+public class DateFormatCache
+{
+    private static final long MINUTE = 60 * 1000;
+    private static final long HOUR = 60 * MINUTE;
+    private static final long DAY = 24 * HOUR;
+
+    //Relative dates are only used for recent times, older dates are displayed in full
+    private static final long MAX_RELATIVE_AGE = 7 * DAY;
+
+    private static DateFormat dateFormat;
+    private static DateFormat timeFormat;
+    private static final Date date = new Date();
+
+    /**
+     * @return date and time in user's format
+     */
+    public static synchronized String format(Context context, long time)
+    {
+        if (dateFormat == null)
+        {
+            dateFormat = android.text.format.DateFormat.getDateFormat(context);
+            timeFormat = android.text.format.DateFormat.getTimeFormat(context);
+        }
+
+        //DateFormat is not thread safe, so formatting is done inside lock
+        date.setTime(time);
+        return dateFormat.format(date) + " " + timeFormat.format(date);
+    }
+
+    /**
+     * @return compact time relative to now (for example "5m ago") or full date when time is more than a week old.
+     */
+    public static String formatRelative(Context context, long time)
+    {
+        long age = System.currentTimeMillis() - time;
+        if (age >= MAX_RELATIVE_AGE)
+            return format(context, time);
+
+        if (age < MINUTE)
+            return "now";
+        else if (age < HOUR)
+            return (age / MINUTE) + "m ago";
+        else if (age < DAY)
+            return (age / HOUR) + "h ago";
+        else
+            return (age / DAY) + "d ago";
+    }
+
+    public static synchronized void invalidate()
+    {
+        dateFormat = null;
+        timeFormat = null;
+    }
+}
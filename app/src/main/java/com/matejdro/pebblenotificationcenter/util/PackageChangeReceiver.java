@@ -0,0 +1,28 @@
+package com.matejdro.pebblenotificationcenter.util;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.net.Uri;
+import com.matejdro.pebblenotificationcenter.PebbleNotificationCenter;
+import timber.log.Timber;
+
+/**
+ * Clears cached data about the app when it is updated or removed.
+ */
+public class PackageChangeReceiver extends BroadcastReceiver
+{
+    @Override
+    public void onReceive(Context context, Intent intent)
+    {
+        Uri data = intent.getData();
+        if (data == null)
+            return;
+
+        String pkg = data.getSchemeSpecificPart();
+        Timber.d("Package changed: " + pkg + " " + intent.getAction());
+
+        PebbleNotificationCenter.getAppColorCache().invalidate(pkg);
+        PebbleNotificationCenter.getAppLabelCache().invalidate(pkg);
+    }
+}
@@ -0,0 +1,125 @@
+package com.matejdro.pebblenotificationcenter.util;
+
+import android.support.annotation.Nullable;
+import java.lang.reflect.Field;
+import java.util.concurrent.ConcurrentHashMap;
+import timber.log.Timber;
+
+/**
+ * Resolves classes and fields used for reflection only once. Fields are looked up per concrete class and made accessible
+ * when they are first requested. Missing classes and fields are also remembered, so failed lookups are not repeated for every notification.
+ */
+public class ReflectionCache
+{
+    //ConcurrentHashMap does not accept nulls, so this marks classes and fields that do not exist
+    private static final Object MISSING = new Object();
+
+    private static final ConcurrentHashMap<String, Object> classes = new ConcurrentHashMap<String, Object>();
+    private static final ConcurrentHashMap<Class<?>, ConcurrentHashMap<String, Object>> fields = new ConcurrentHashMap<Class<?>, ConcurrentHashMap<String, Object>>();
+
+    public static @Nullable Class<?> getClass(String name)
+    {
+        Object cls = classes.get(name);
+        if (cls == null)
+        {
+            try
+            {
+                cls = Class.forName(name);
+            }
+            catch (ClassNotFoundException e)
+            {
+                Timber.w("Class " + name + " does not exist");
+                cls = MISSING;
+            }
+
+            classes.put(name, cls);
+        }
+
+        return cls == MISSING ? null : (Class<?>) cls;
+    }
+
+    /**
+     * @return field declared directly in the specified class (made accessible) or <code>null</code> if class does not declare such field.
+     */
+    public static @Nullable Field getField(Class<?> cls, String name)
+    {
+        ConcurrentHashMap<String, Object> classFields = fields.get(cls);
+        if (classFields == null)
+        {
+            classFields = new ConcurrentHashMap<String, Object>();
+            ConcurrentHashMap<String, Object> existing = fields.putIfAbsent(cls, classFields);
+            if (existing != null)
+                classFields = existing;
+        }
+
+        Object field = classFields.get(name);
+        if (field == null)
+        {
+            try
+            {
+                Field resolvedField = cls.getDeclaredField(name);
+                resolvedField.setAccessible(true);
+                field = resolvedField;
+            }
+            catch (NoSuchFieldException e)
+            {
+                Timber.w("Field " + name + " does not exist in " + cls.getName());
+                field = MISSING;
+            }
+
+            classFields.put(name, field);
+        }
+
+        return field == MISSING ? null : (Field) field;
+    }
+
+    /**
+     * @return value of the field or <code>null</code> if field does not exist or cannot be read.
+     */
+    public static @Nullable Object getObject(Object target, Class<?> cls, String name)
+    {
+        Field field = getField(cls, name);
+        if (field == null)
+            return null;
+
+        try
+        {
+            return field.get(target);
+        }
+        catch (IllegalAccessException e)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * @return value of the field declared in target's class or <code>null</code> if field does not exist or cannot be read.
+     */
+    public static @Nullable Object getObject(Object target, String name)
+    {
+        return getObject(target, target.getClass(), name);
+    }
+
+    /**
+     * @return value of the int field or <code>fallback</code> if field does not exist or cannot be read.
+     */
+    public static int getInt(Object target, Class<?> cls, String name, int fallback)
+    {
+        Field field = getField(cls, name);
+        if (field == null)
+            return fallback;
+
+        try
+        {
+            return field.getInt(target);
+        }
+        catch (IllegalAccessException e)
+        {
+            return fallback;
+        }
+        catch (IllegalArgumentException e)
+        {
+            return fallback;
+        }
+    }
+}
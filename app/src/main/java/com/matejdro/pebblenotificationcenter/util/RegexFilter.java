@@ -0,0 +1,127 @@
+package com.matejdro.pebblenotificationcenter.util;
+
+import android.support.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import timber.log.Timber;
+
+/**
+ * List of user regexes, compiled once. When possible, all patterns are also merged into single alternation pattern,
+ * so checking the text requires only one pass.
+ */
+public class RegexFilter
+{
+    public static final RegexFilter EMPTY = new RegexFilter(new ArrayList<String>(0), new ArrayList<Pattern>(0), null);
+
+    //Backreferences depend on group numbering, which changes when patterns are merged together
+    private static final Pattern BACKREFERENCE_PATTERN = Pattern.compile("\\\\[1-9]|\\\\k<");
+
+    private final List<String> rules;
+    private final List<Pattern> patterns;
+    private final Pattern combinedPattern;
+
+    private RegexFilter(List<String> rules, List<Pattern> patterns, Pattern combinedPattern)
+    {
+        this.rules = rules;
+        this.patterns = patterns;
+        this.combinedPattern = combinedPattern;
+    }
+
+    public boolean isEmpty()
+    {
+        return patterns.isEmpty();
+    }
+
+    /**
+     * @return <code>true</code> if any of the patterns can be found in the text.
+     */
+    public boolean matches(String text)
+    {
+        if (combinedPattern != null)
+            return combinedPattern.matcher(text).find();
+
+        for (Pattern pattern : patterns)
+        {
+            if (pattern.matcher(text).find())
+                return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * @return first rule that can be found in the text or <code>null</code> if there is no such rule.
+     */
+    public @Nullable String findMatchingRule(String text)
+    {
+        if (combinedPattern != null && !combinedPattern.matcher(text).find())
+            return null;
+
+        for (int i = 0; i < patterns.size(); i++)
+        {
+            if (patterns.get(i).matcher(text).find())
+                return rules.get(i);
+        }
+
+        return null;
+    }
+
+    public static RegexFilter compile(@Nullable List<String> regexes)
+    {
+        if (regexes == null || regexes.isEmpty())
+            return EMPTY;
+
+        List<String> rules = new ArrayList<String>(regexes.size());
+        List<Pattern> patterns = new ArrayList<Pattern>(regexes.size());
+        boolean combinable = true;
+
+        for (String regex : regexes)
+        {
+            if (regex == null)
+                continue;
+
+            try
+            {
+                patterns.add(Pattern.compile(regex));
+                rules.add(regex);
+            }
+            catch (PatternSyntaxException e)
+            {
+                Timber.w("Invalid regex: " + regex);
+                continue;
+            }
+
+            if (BACKREFERENCE_PATTERN.matcher(regex).find())
+                combinable = false;
+        }
+
+        if (patterns.isEmpty())
+            return EMPTY;
+
+        Pattern combinedPattern = null;
+        if (combinable && patterns.size() > 1)
+        {
+            StringBuilder builder = new StringBuilder();
+            for (String rule : rules)
+            {
+                if (builder.length() > 0)
+                    builder.append('|');
+
+                builder.append("(?:").append(rule).append(')');
+            }
+
+            try
+            {
+                combinedPattern = Pattern.compile(builder.toString());
+            }
+            catch (PatternSyntaxException e)
+            {
+                //Some constructs (such as unterminated \Q quotes) cannot be wrapped. Check patterns one by one instead.
+            }
+        }
+
+        return new RegexFilter(rules, patterns, combinedPattern);
+    }
+}
@@ -4,6 +4,7 @@ import android.content.Context;
 import android.content.SharedPreferences;
 import android.preference.PreferenceManager;
 import com.matejdro.pebblenotificationcenter.PebbleNotificationCenter;
+import com.matejdro.pebblenotificationcenter.appsetting.AppSettingsCache;
 import com.matejdro.pebblenotificationcenter.appsetting.DefaultAppSettingsStorage;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -15,6 +16,7 @@ public class SettingsMemoryStorage {
 	
 	private SharedPreferences preferences;
     private DefaultAppSettingsStorage appSettingsStorage;
+    private AppSettingsCache appSettingsCache;
 	private HashMap<String, String> replacingStrings;
 	
 	public SettingsMemoryStorage(Context context)
@@ -22,11 +24,13 @@ public class SettingsMemoryStorage {
 		this.context = context;
 		this.preferences = PreferenceManager.getDefaultSharedPreferences(context);
 		this.replacingStrings = new HashMap<String, String>();
+		this.appSettingsCache = new AppSettingsCache(context, this, preferences);
 	}
 	
 	public void markDirty()
 	{
 		dirty = true;
+		appSettingsCache.invalidateAll();
 	}
 	
 	private void loadSettings()
@@ -69,6 +73,11 @@ public class SettingsMemoryStorage {
     }
 
 
+    public AppSettingsCache getAppSettingsCache()
+    {
+        return appSettingsCache;
+    }
+
 	public HashMap<String, String> getReplacingStrings()
 	{
 		if (dirty)
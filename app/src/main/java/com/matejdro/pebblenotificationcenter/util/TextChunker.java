@@ -0,0 +1,145 @@
+package com.matejdro.pebblenotificationcenter.util;
+
+import java.nio.charset.Charset;
+
+/**
+ * Splits UTF-8 encoded text into chunks without copying it. Chunks are represented only by their end offsets in the original byte array.
+ * Chunks never split multibyte UTF-8 characters.
+ */
+public class TextChunker
+{
+    public static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    public static byte[] encode(String text)
+    {
+        return text.getBytes(UTF_8);
+    }
+
+    /**
+     * @return exclusive end offsets of the chunks that have at most <code>maxCharacters</code> characters each.
+     * Characters are counted like Java chars (characters outside BMP count as two).
+     */
+    public static int[] splitByCharacters(byte[] text, int maxCharacters)
+    {
+        int[] ends = new int[estimateNumberOfChunks(text.length, maxCharacters)];
+        int numOfChunks = 0;
+
+        int charactersInChunk = 0;
+        int pos = 0;
+        while (pos < text.length)
+        {
+            int sequenceLength = getSequenceLength(text[pos]);
+            int characters = sequenceLength == 4 ? 2 : 1;
+
+            if (charactersInChunk + characters > maxCharacters && charactersInChunk > 0)
+            {
+                ends = append(ends, numOfChunks++, pos);
+                charactersInChunk = 0;
+            }
+
+            charactersInChunk += characters;
+            pos = Math.min(pos + sequenceLength, text.length);
+        }
+
+        if (charactersInChunk > 0)
+            ends = append(ends, numOfChunks++, text.length);
+
+        return trim(ends, numOfChunks);
+    }
+
+    /**
+     * @return exclusive end offsets of the chunks that have at most <code>maxBytes</code> bytes each.
+     */
+    public static int[] splitByBytes(byte[] text, int maxBytes)
+    {
+        int[] ends = new int[estimateNumberOfChunks(text.length, maxBytes)];
+        int numOfChunks = 0;
+
+        int chunkStart = 0;
+        int pos = 0;
+        while (pos < text.length)
+        {
+            int sequenceEnd = Math.min(pos + getSequenceLength(text[pos]), text.length);
+
+            if (sequenceEnd - chunkStart > maxBytes && pos > chunkStart)
+            {
+                ends = append(ends, numOfChunks++, pos);
+                chunkStart = pos;
+            }
+
+            pos = sequenceEnd;
+        }
+
+        if (pos > chunkStart)
+            ends = append(ends, numOfChunks++, pos);
+
+        return trim(ends, numOfChunks);
+    }
+
+    /**
+     * @return length of the longest start of the text that has at most <code>maxBytes</code> bytes and does not end in the middle of a character
+     */
+    public static int getPrefixLength(byte[] text, int maxBytes)
+    {
+        int pos = 0;
+        while (pos < text.length)
+        {
+            int sequenceEnd = Math.min(pos + getSequenceLength(text[pos]), text.length);
+            if (sequenceEnd > maxBytes)
+                break;
+
+            pos = sequenceEnd;
+        }
+
+        return pos;
+    }
+
+    public static String decode(byte[] text, int start, int end)
+    {
+        return new String(text, start, end - start, UTF_8);
+    }
+
+    /**
+     * @return number of bytes in UTF-8 sequence that starts with this byte. Stray continuation bytes are treated as one-byte sequences.
+     */
+    public static int getSequenceLength(byte leadByte)
+    {
+        int b = leadByte & 0xFF;
+        if (b >= 0xF0)
+            return 4;
+        else if (b >= 0xE0)
+            return 3;
+        else if (b >= 0xC0)
+            return 2;
+        else
+            return 1;
+    }
+
+    private static int estimateNumberOfChunks(int length, int maxChunkSize)
+    {
+        return Math.max(1, (length + maxChunkSize - 1) / maxChunkSize);
+    }
+
+    private static int[] append(int[] array, int index, int value)
+    {
+        if (index >= array.length)
+        {
+            int[] newArray = new int[array.length * 2];
+            System.arraycopy(array, 0, newArray, 0, array.length);
+            array = newArray;
+        }
+
+        array[index] = value;
+        return array;
+    }
+
+    private static int[] trim(int[] array, int size)
+    {
+        if (array.length == size)
+            return array;
+
+        int[] newArray = new int[size];
+        System.arraycopy(array, 0, newArray, 0, size);
+        return newArray;
+    }
+}
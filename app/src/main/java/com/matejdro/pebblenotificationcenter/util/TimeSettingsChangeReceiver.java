@@ -0,0 +1,20 @@
+package com.matejdro.pebblenotificationcenter.util;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import timber.log.Timber;
+
+/**
+ * Clears cached date formats when user changes time format, time zone or language.
+ */
+public class TimeSettingsChangeReceiver extends BroadcastReceiver
+{
+    @Override
+    public void onReceive(Context context, Intent intent)
+    {
+        Timber.d("Time settings changed: " + intent.getAction());
+
+        DateFormatCache.invalidate();
+    }
+}
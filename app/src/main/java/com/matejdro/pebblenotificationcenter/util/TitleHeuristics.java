@@ -0,0 +1,39 @@
+package com.matejdro.pebblenotificationcenter.util;
+
+/**
+ * Guesses subtitle of notifications that do not have one and moves too long subtitles into the text.
+ */
+public class TitleHeuristics
+{
+    /**
+     * @param maxSubtitleLength subtitles longer than that are moved into the text, so they are not cut off
+     * @return array with title, subtitle and text
+     */
+    public static String[] apply(String title, String subtitle, String text, int maxSubtitleLength)
+    {
+        if (subtitle.isEmpty())
+        {
+            //Attempt to figure out subtitle
+            if (text.contains("\n"))
+            {
+                int firstLineBreak = text.indexOf('\n');
+                if (firstLineBreak < maxSubtitleLength && firstLineBreak < text.length() * 0.8)
+                {
+                    subtitle = text.substring(0, firstLineBreak).trim();
+                    text = text.substring(firstLineBreak).trim();
+                }
+            }
+        }
+        else if (subtitle.length() > maxSubtitleLength)
+        {
+            //Do not cut off titles which some apps make very long
+            text = subtitle + "\n" + text;
+            subtitle = "";
+        }
+
+        if (title.trim().equals(subtitle.trim()))
+            subtitle = "";
+
+        return new String[] { title, subtitle, text };
+    }
+}
@@ -0,0 +1,125 @@
+package com.matejdro.pebblenotificationcenter.benchmark;
+
+import com.matejdro.pebblenotificationcenter.util.ContentFingerprint;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Checking whether notification with identical content was already sent: scan of all sent notifications comparing
+ * every field (as before fingerprints were introduced) against fingerprint lookup in SentNotificationRegistry.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DuplicateDetectionBenchmark
+{
+    private static final int PROBES = 200;
+
+    @Param({ "10", "100", "500" })
+    public int sentNotifications;
+
+    private Content[] sent;
+    private Content[] probes;
+    private HashSet<Long> sentFingerprints;
+
+    @Setup
+    public void setUp()
+    {
+        SyntheticCorpus corpus = new SyntheticCorpus(sentNotifications + PROBES);
+
+        sent = new Content[sentNotifications];
+        sentFingerprints = new HashSet<Long>();
+        for (int i = 0; i < sentNotifications; i++)
+        {
+            sent[i] = new Content(corpus, i);
+            sentFingerprints.add(sent[i].fingerprint);
+        }
+
+        //Half of the probes are duplicates of already sent notifications
+        probes = new Content[PROBES];
+        for (int i = 0; i < PROBES; i++)
+        {
+            if (i % 2 == 0)
+                probes[i] = new Content(corpus, i % sentNotifications);
+            else
+                probes[i] = new Content(corpus, sentNotifications + i);
+        }
+    }
+
+    /**
+     * Baseline: every sent notification is compared field by field.
+     */
+    @Benchmark
+    @OperationsPerInvocation(PROBES)
+    public void linearScan(Blackhole blackhole)
+    {
+        for (Content probe : probes)
+        {
+            boolean found = false;
+            for (Content candidate : sent)
+            {
+                if (candidate.hasIdenticalContent(probe))
+                {
+                    found = true;
+                    break;
+                }
+            }
+
+            blackhole.consume(found);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PROBES)
+    public void fingerprintLookup(Blackhole blackhole)
+    {
+        //Fingerprint is calculated for every probe, because new notification does not have it cached yet
+        for (Content probe : probes)
+            blackhole.consume(sentFingerprints.contains(probe.calculateFingerprint()));
+    }
+
+    private static class Content
+    {
+        final String pkg;
+        final String title;
+        final String subtitle;
+        final String text;
+        final long fingerprint;
+
+        Content(SyntheticCorpus corpus, int index)
+        {
+            //Copy strings, so comparisons can not short-circuit on identity
+            pkg = new String(corpus.packages[index]);
+            title = new String(corpus.titles[index]);
+            subtitle = new String(corpus.subtitles[index]);
+            text = new String(corpus.texts[index]);
+            fingerprint = calculateFingerprint();
+        }
+
+        boolean hasIdenticalContent(Content comparing)
+        {
+            return pkg.equals(comparing.pkg) && comparing.text.equals(text) && comparing.title.equals(title) && comparing.subtitle.equals(subtitle);
+        }
+
+        long calculateFingerprint()
+        {
+            return ContentFingerprint.calculate(pkg, title, subtitle, text);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.matejdro.pebblenotificationcenter.benchmark;
+
+import com.matejdro.pebblenotificationcenter.NotificationKey;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Parsing and comparing of Lollipop notification keys, which happens for every posted and dismissed notification.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NotificationKeyBenchmark
+{
+    private static final int CORPUS_SIZE = 1000;
+
+    private String[] keys;
+    private NotificationKey[] parsedKeys;
+    private NotificationKey[] legacyKeys;
+
+    @Setup
+    public void setUp()
+    {
+        SyntheticCorpus corpus = new SyntheticCorpus(CORPUS_SIZE);
+        keys = corpus.lollipopKeys;
+
+        parsedKeys = new NotificationKey[CORPUS_SIZE];
+        legacyKeys = new NotificationKey[CORPUS_SIZE];
+        for (int i = 0; i < CORPUS_SIZE; i++)
+        {
+            parsedKeys[i] = new NotificationKey(keys[i]);
+            legacyKeys[i] = new NotificationKey(parsedKeys[i].getPackage(), parsedKeys[i].getAndroidId(), parsedKeys[i].getTag());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CORPUS_SIZE)
+    public void parseLollipopKey(Blackhole blackhole)
+    {
+        for (String key : keys)
+            blackhole.consume(new NotificationKey(key));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CORPUS_SIZE)
+    public void compareLollipopKeys(Blackhole blackhole)
+    {
+        for (int i = 0; i < CORPUS_SIZE; i++)
+            blackhole.consume(parsedKeys[i].equals(parsedKeys[(i + 1) % CORPUS_SIZE]));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CORPUS_SIZE)
+    public void compareLegacyKeys(Blackhole blackhole)
+    {
+        for (int i = 0; i < CORPUS_SIZE; i++)
+            blackhole.consume(legacyKeys[i].equals(legacyKeys[(i + 1) % CORPUS_SIZE]));
+    }
+}
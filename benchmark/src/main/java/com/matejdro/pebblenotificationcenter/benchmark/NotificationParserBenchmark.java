@@ -0,0 +1,145 @@
+package com.matejdro.pebblenotificationcenter.benchmark;
+
+import com.matejdro.pebblenotificationcenter.notifications.TextAssembler;
+import com.matejdro.pebblenotificationcenter.util.ReflectionCache;
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Parts of NotificationParser text extraction that do not need Android: assembling text from segments
+ * and reading private fields of RemoteViews actions through reflection.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NotificationParserBenchmark
+{
+    private static final int CORPUS_SIZE = 1000;
+    private static final int TEXT_LIMIT = 2000;
+    private static final int ACTIONS_PER_NOTIFICATION = 12;
+
+    private String[][] segments;
+    private FakeReflectionAction[] actions;
+
+    @Setup
+    public void setUp()
+    {
+        SyntheticCorpus corpus = new SyntheticCorpus(CORPUS_SIZE);
+
+        //RemoteViews often contain the same text multiple times (for example in collapsed and expanded layout)
+        segments = new String[CORPUS_SIZE][];
+        for (int i = 0; i < CORPUS_SIZE; i++)
+        {
+            String[] lines = corpus.texts[i].split("\n");
+            segments[i] = new String[lines.length * 2];
+            for (int j = 0; j < lines.length; j++)
+            {
+                segments[i][j] = lines[j];
+                segments[i][lines.length + j] = lines[j];
+            }
+        }
+
+        actions = new FakeReflectionAction[ACTIONS_PER_NOTIFICATION];
+        for (int i = 0; i < ACTIONS_PER_NOTIFICATION; i++)
+            actions[i] = new FakeReflectionAction(i, corpus.texts[i]);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CORPUS_SIZE)
+    public void textAssembler(Blackhole blackhole)
+    {
+        for (String[] notificationSegments : segments)
+        {
+            TextAssembler assembler = new TextAssembler(TEXT_LIMIT);
+            for (String segment : notificationSegments)
+                assembler.append(segment);
+
+            blackhole.consume(assembler.build());
+        }
+    }
+
+    /**
+     * Baseline: string concatenation with duplicate check over whole text, as parser did before {@link TextAssembler}.
+     */
+    @Benchmark
+    @OperationsPerInvocation(CORPUS_SIZE)
+    public void textConcatenation(Blackhole blackhole)
+    {
+        for (String[] notificationSegments : segments)
+        {
+            String text = "";
+            for (String segment : notificationSegments)
+            {
+                if (text.length() >= TEXT_LIMIT || text.contains(segment))
+                    continue;
+
+                text += segment + "\n\n";
+            }
+
+            blackhole.consume(text.trim());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ACTIONS_PER_NOTIFICATION)
+    public void reflectionCached(Blackhole blackhole)
+    {
+        for (FakeReflectionAction action : actions)
+        {
+            blackhole.consume(ReflectionCache.getInt(action, FakeReflectionAction.class, "viewId", -1));
+            blackhole.consume(ReflectionCache.getObject(action, "value"));
+        }
+    }
+
+    /**
+     * Baseline: fields are looked up and made accessible for every read, as parser did before {@link ReflectionCache}.
+     */
+    @Benchmark
+    @OperationsPerInvocation(ACTIONS_PER_NOTIFICATION)
+    public void reflectionUncached(Blackhole blackhole) throws Exception
+    {
+        for (FakeReflectionAction action : actions)
+        {
+            Field viewIdField = action.getClass().getDeclaredField("viewId");
+            viewIdField.setAccessible(true);
+            blackhole.consume(viewIdField.getInt(action));
+
+            Field valueField = action.getClass().getDeclaredField("value");
+            valueField.setAccessible(true);
+            blackhole.consume(valueField.get(action));
+        }
+    }
+
+    /**
+     * Has the same private fields as RemoteViews.ReflectionAction that parser reads.
+     */
+    @SuppressWarnings("unused")
+    private static class FakeReflectionAction
+    {
+        private int viewId;
+        private String methodName = "setText";
+        private int type = 10;
+        private Object value;
+
+        public FakeReflectionAction(int viewId, Object value)
+        {
+            this.viewId = viewId;
+            this.value = value;
+        }
+    }
+}
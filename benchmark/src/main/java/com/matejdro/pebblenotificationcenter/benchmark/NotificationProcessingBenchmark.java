@@ -0,0 +1,138 @@
+package com.matejdro.pebblenotificationcenter.benchmark;
+
+import com.matejdro.pebblenotificationcenter.pebble.TextChunkPlanner;
+import com.matejdro.pebblenotificationcenter.util.RegexFilter;
+import com.matejdro.pebblenotificationcenter.util.TextChunker;
+import com.matejdro.pebblenotificationcenter.util.TitleHeuristics;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Steps that NotificationSendingModule.processNotification() performs for every notification: title and subtitle heuristics,
+ * regex filtering and splitting of the text into packets. Results are per notification.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NotificationProcessingBenchmark
+{
+    private static final int CORPUS_SIZE = 1000;
+
+    //Same value as in NotificationSendingModule
+    private static final int TITLE_TEXT_LIMIT = 30;
+    //Inbox size reported by watchapp on Basalt
+    private static final int INBOX_SIZE = 512;
+
+    private static final List<String> USER_REGEXES = Arrays.asList(
+            "(?i)invoice",
+            "^Team chat",
+            "\\d{4}",
+            "(?i)(lunch|dinner) today",
+            "example\\.com/[a-z]+"
+    );
+
+    private SyntheticCorpus corpus;
+    private byte[][] encodedTexts;
+
+    private RegexFilter regexFilter;
+    private List<Pattern> separatePatterns;
+
+    @Setup
+    public void setUp()
+    {
+        corpus = new SyntheticCorpus(CORPUS_SIZE);
+
+        encodedTexts = new byte[CORPUS_SIZE][];
+        for (int i = 0; i < CORPUS_SIZE; i++)
+            encodedTexts[i] = TextChunker.encode(corpus.texts[i]);
+
+        regexFilter = RegexFilter.compile(USER_REGEXES);
+
+        separatePatterns = new ArrayList<Pattern>();
+        for (String regex : USER_REGEXES)
+            separatePatterns.add(Pattern.compile(regex));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CORPUS_SIZE)
+    public void titleHeuristics(Blackhole blackhole)
+    {
+        for (int i = 0; i < CORPUS_SIZE; i++)
+            blackhole.consume(TitleHeuristics.apply(corpus.titles[i], corpus.subtitles[i], corpus.texts[i], TITLE_TEXT_LIMIT));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CORPUS_SIZE)
+    public void regexFilterCombined(Blackhole blackhole)
+    {
+        for (int i = 0; i < CORPUS_SIZE; i++)
+            blackhole.consume(regexFilter.matches(getCombinedText(i)));
+    }
+
+    /**
+     * Baseline: every pattern is checked separately, as before patterns were merged.
+     */
+    @Benchmark
+    @OperationsPerInvocation(CORPUS_SIZE)
+    public void regexFilterSeparate(Blackhole blackhole)
+    {
+        for (int i = 0; i < CORPUS_SIZE; i++)
+        {
+            String text = getCombinedText(i);
+
+            boolean matches = false;
+            for (Pattern pattern : separatePatterns)
+            {
+                if (pattern.matcher(text).find())
+                {
+                    matches = true;
+                    break;
+                }
+            }
+
+            blackhole.consume(matches);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CORPUS_SIZE)
+    public void textChunkingByBytes(Blackhole blackhole)
+    {
+        for (int i = 0; i < CORPUS_SIZE; i++)
+        {
+            byte[] text = TextChunker.encode(corpus.texts[i]);
+            blackhole.consume(TextChunkPlanner.plan(text, INBOX_SIZE));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CORPUS_SIZE)
+    public void textChunkingByCharacters(Blackhole blackhole)
+    {
+        for (int i = 0; i < CORPUS_SIZE; i++)
+            blackhole.consume(TextChunkPlanner.plan(encodedTexts[i], 0));
+    }
+
+    private String getCombinedText(int index)
+    {
+        return corpus.titles[index] + "\n" + corpus.subtitles[index] + "\n" + corpus.texts[index];
+    }
+}
@@ -0,0 +1,103 @@
+package com.matejdro.pebblenotificationcenter.benchmark;
+
+import java.util.Random;
+
+/**
+ * Reproducible set of fake notifications. Same seed always produces the same corpus, so results of different runs can be compared.
+ *
+ * Texts mix plain ASCII with accented, CJK and emoji characters to exercise UTF-8 handling and some notifications
+ * have empty subtitle with short first line, like messaging apps that put sender into the text.
+ */
+public class SyntheticCorpus
+{
+    public static final long SEED = 0x5EB8L;
+
+    private static final String[] PACKAGES = {
+            "com.whatsapp",
+            "com.google.android.gm",
+            "com.facebook.orca",
+            "org.telegram.messenger",
+            "com.google.android.calendar",
+            "com.google.android.talk",
+            "com.twitter.android",
+            "com.android.phone"
+    };
+
+    private static final String[] NAMES = {
+            "Alice", "Bob", "Matej", "\u017deljko", "Anja", "J\u00fcrgen", "\u674e\u96f7", "Chlo\u00e9", "Team chat", "Family"
+    };
+
+    private static final String[] WORDS = {
+            "meeting", "tomorrow", "at", "the", "office", "please", "send", "me", "report", "lunch", "today", "ok",
+            "thanks", "see", "you", "later", "invoice", "attached", "call", "back", "when", "free", "\u010destitke", "Gr\u00fc\u00dfe",
+            "d\u00e9j\u00e0", "vu", "\u65e5\u672c\u8a9e", "\u30c6\u30ad\u30b9\u30c8", "\ud83d\ude00", "\ud83d\udc4d", "https://example.com/a/b?c=d", "#1234"
+    };
+
+    public final String[] packages;
+    public final String[] titles;
+    public final String[] subtitles;
+    public final String[] texts;
+    public final String[] lollipopKeys;
+
+    public SyntheticCorpus(int size)
+    {
+        this(size, SEED);
+    }
+
+    public SyntheticCorpus(int size, long seed)
+    {
+        Random random = new Random(seed);
+
+        packages = new String[size];
+        titles = new String[size];
+        subtitles = new String[size];
+        texts = new String[size];
+        lollipopKeys = new String[size];
+
+        for (int i = 0; i < size; i++)
+        {
+            String pkg = PACKAGES[random.nextInt(PACKAGES.length)];
+            packages[i] = pkg;
+            titles[i] = NAMES[random.nextInt(NAMES.length)];
+
+            int lines = 1 + random.nextInt(8);
+            StringBuilder text = new StringBuilder();
+            for (int line = 0; line < lines; line++)
+            {
+                if (line > 0)
+                    text.append('\n');
+
+                text.append(words(random, 3 + random.nextInt(23)));
+            }
+
+            if (random.nextInt(3) == 0)
+            {
+                //Sender in the first line, subtitle must be figured out from text
+                subtitles[i] = "";
+                texts[i] = NAMES[random.nextInt(NAMES.length)] + "\n" + text;
+            }
+            else
+            {
+                subtitles[i] = words(random, 1 + random.nextInt(6));
+                texts[i] = text.toString();
+            }
+
+            String tag = random.nextBoolean() ? "null" : "tag" + random.nextInt(100);
+            lollipopKeys[i] = "0|" + pkg + "|" + random.nextInt(10000) + "|" + tag + "|" + (10000 + random.nextInt(100));
+        }
+    }
+
+    private static String words(Random random, int count)
+    {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++)
+        {
+            if (i > 0)
+                builder.append(' ');
+
+            builder.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+
+        return builder.toString();
+    }
+}
@@ -0,0 +1,27 @@
+package android.os;
+
+/**
+ * Compile-time stand-in for the Android class. Benchmarks never parcel objects.
+ */
+public final class Parcel
+{
+    public void writeByte(byte val)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    public void writeValue(Object v)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    public byte readByte()
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    public Object readValue(ClassLoader loader)
+    {
+        throw new UnsupportedOperationException();
+    }
+}
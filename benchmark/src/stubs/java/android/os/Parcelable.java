@@ -0,0 +1,16 @@
+package android.os;
+
+/**
+ * Compile-time stand-in for the Android interface. Benchmarks never parcel objects.
+ */
+public interface Parcelable
+{
+    public int describeContents();
+    public void writeToParcel(Parcel dest, int flags);
+
+    public interface Creator<T>
+    {
+        public T createFromParcel(Parcel source);
+        public T[] newArray(int size);
+    }
+}
@@ -0,0 +1,12 @@
+package android.support.annotation;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+/**
+ * Stand-in for the support library annotation, so app classes compile on plain JVM.
+ */
+@Retention(RetentionPolicy.CLASS)
+public @interface Nullable
+{
+}
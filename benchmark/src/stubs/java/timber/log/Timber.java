@@ -0,0 +1,27 @@
+package timber.log;
+
+/**
+ * No-op stand-in for Timber (which is only available as Android library), so logging does not affect measurements.
+ */
+public final class Timber
+{
+    public static void d(String message, Object... args)
+    {
+    }
+
+    public static void i(String message, Object... args)
+    {
+    }
+
+    public static void w(String message, Object... args)
+    {
+    }
+
+    public static void e(String message, Object... args)
+    {
+    }
+
+    public static void e(Throwable t, String message, Object... args)
+    {
+    }
+}